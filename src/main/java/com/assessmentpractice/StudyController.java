@@ -1,12 +1,39 @@
 package com.assessmentpractice;
 
+import com.assessmentpractice.admission.StockAdmissionControl;
+import com.assessmentpractice.dto.ExportManifest;
+import com.assessmentpractice.dto.ImportReport;
+import com.assessmentpractice.dto.OrderConfirmation;
+import com.assessmentpractice.dto.OrderRequest;
+import com.assessmentpractice.dto.ReconciliationReport;
+import com.assessmentpractice.dto.StockDecreaseResult;
+import com.assessmentpractice.entity.Order;
+import com.assessmentpractice.entity.StockLog;
+import com.assessmentpractice.exception.AdmissionRejectedException;
+import com.assessmentpractice.exception.InsufficientStockException;
 import com.assessmentpractice.service.CacheService;
+import com.assessmentpractice.service.CatalogImportService;
 import com.assessmentpractice.service.CollectionService;
 import com.assessmentpractice.service.ConcurrencyService;
+import com.assessmentpractice.service.LedgerExportService;
+import com.assessmentpractice.service.OrderService;
+import com.assessmentpractice.service.StockLedgerService;
+import com.assessmentpractice.service.StockReconciliationService;
+import com.assessmentpractice.service.StockService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
@@ -23,6 +50,27 @@ public class StudyController {
     @Autowired
     private ConcurrencyService concurrencyService;
 
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @Autowired
+    private LedgerExportService ledgerExportService;
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Autowired
+    private StockReconciliationService stockReconciliationService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private StockAdmissionControl stockAdmissionControl;
+
     @GetMapping("/grasp")
     public Map<String, Object> getGraspPrinciples() {
         Map<String, Object> response = new HashMap<>();
@@ -112,4 +160,143 @@ public class StudyController {
         response.put("note", "To enable S3 integration, add AWS SDK dependencies and configure credentials");
         return response;
     }
+
+    @PostMapping("/orders")
+    public Map<String, Object> placeOrder(@RequestBody OrderRequest request) {
+        OrderConfirmation confirmation = orderService.placeOrder(request);
+        Order order = confirmation.order();
+        Map<String, Object> response = new HashMap<>();
+        response.put("order_id", order.getId());
+        response.put("status", order.getStatus());
+        response.put("total_amount", order.getTotalAmount());
+        response.put("lines", confirmation.lines());
+        return response;
+    }
+
+    @PostMapping("/catalog/import")
+    public Map<String, Object> importCatalog(@RequestParam(defaultValue = "csv") String format, InputStream body) {
+        ImportReport report = catalogImportService.importCatalog(body,
+                CatalogImportService.Format.valueOf(format.toUpperCase()));
+        Map<String, Object> response = new HashMap<>();
+        response.put("rows", report.rows());
+        response.put("chunks", report.chunks());
+        response.put("elapsed_ms", report.elapsedMillis());
+        response.put("rows_per_second", report.rowsPerSecond());
+        response.put("copy_fast_path", report.copyFastPath());
+        return response;
+    }
+
+    @GetMapping("/ledger/export")
+    public ResponseEntity<StreamingResponseBody> exportLedger(
+            @RequestParam(defaultValue = "0") long sinceId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        StreamingResponseBody body = out -> ledgerExportService.export(out, sinceId, since);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"stock_logs_since_" + sinceId + ".ndjson.gz\"")
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .body(body);
+    }
+
+    @GetMapping("/ledger/products/{productId}")
+    public List<StockLog> getProductLedger(
+            @PathVariable Long productId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return stockLedgerService.productHistory(productId, from, to);
+    }
+
+    @GetMapping("/ledger")
+    public Map<String, Object> getLedgerWindow(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size) {
+        Slice<StockLog> logs = stockLedgerService.catalogHistory(from, to, page, size);
+        Map<String, Object> response = new HashMap<>();
+        response.put("logs", logs.getContent());
+        response.put("page", page);
+        response.put("has_next", logs.hasNext());
+        return response;
+    }
+
+    @PostMapping("/ledger/export/file")
+    public ExportManifest exportLedgerToFile(
+            @RequestParam(defaultValue = "0") long sinceId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        return ledgerExportService.exportToFile(sinceId, since);
+    }
+
+    @PostMapping("/stock/{productId}/decrease")
+    public Map<String, Object> decreaseStock(@PathVariable Long productId, @RequestParam int qty) {
+        stockAdmissionControl.admit(productId, () -> {
+            stockService.decreaseStock(productId, qty);
+            return null;
+        });
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "ok");
+        response.put("product_id", productId);
+        response.put("decreased_by", qty);
+        return response;
+    }
+
+    @PostMapping("/stock/{productId}/try-decrease")
+    public ResponseEntity<Map<String, Object>> tryDecreaseStock(@PathVariable Long productId, @RequestParam int qty) {
+        StockDecreaseResult result = stockAdmissionControl.admit(productId,
+                () -> stockService.tryDecreaseStock(productId, qty));
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", result.status().name().toLowerCase());
+        response.put("product_id", productId);
+        HttpStatus status = switch (result.status()) {
+            case OK -> {
+                response.put("decreased_by", qty);
+                yield HttpStatus.OK;
+            }
+            case INSUFFICIENT -> {
+                response.put("available", result.available());
+                response.put("requested", qty);
+                yield HttpStatus.CONFLICT;
+            }
+            case NOT_FOUND -> HttpStatus.NOT_FOUND;
+        };
+        return ResponseEntity.status(status).body(response);
+    }
+
+    @PostMapping("/stock/reconciliation")
+    public ReconciliationReport runReconciliation() {
+        return stockReconciliationService.reconcile();
+    }
+
+    @GetMapping("/stock/reconciliation")
+    public ResponseEntity<ReconciliationReport> getLastReconciliation() {
+        ReconciliationReport report = stockReconciliationService.getLastReport();
+        return report != null ? ResponseEntity.ok(report) : ResponseEntity.noContent().build();
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, Object> handleIllegalArgument(IllegalArgumentException e) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "error");
+        response.put("message", e.getMessage());
+        return response;
+    }
+
+    @ExceptionHandler(InsufficientStockException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Map<String, Object> handleInsufficientStock(InsufficientStockException e) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "error");
+        response.put("message", e.getMessage());
+        return response;
+    }
+
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<Map<String, Object>> handleAdmissionRejected(AdmissionRejectedException e) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "rejected");
+        response.put("message", e.getMessage());
+        return ResponseEntity.status(e.isGlobal() ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+    }
 }
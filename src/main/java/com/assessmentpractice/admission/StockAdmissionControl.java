@@ -0,0 +1,104 @@
+package com.assessmentpractice.admission;
+
+import com.assessmentpractice.exception.AdmissionRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Admission control in front of StockService writes.
+ *
+ * A global adaptive limit bounds how many stock writes compete for Hikari connections, and a fixed
+ * per-product limit stops one hot product from filling the global limit with callers that would
+ * only wait on the same row lock. Excess calls fail fast with {@link AdmissionRejectedException}.
+ */
+@Component
+public class StockAdmissionControl {
+    private final AdaptiveConcurrencyLimiter globalLimiter;
+    private final int perProductLimit;
+    private final ConcurrentMap<Long, Integer> productInFlight = new ConcurrentHashMap<>();
+    private final Counter globalRejections;
+    private final Counter productRejections;
+
+    public StockAdmissionControl(MeterRegistry meterRegistry,
+                                 @Value("${app.admission.initial-limit:20}") int initialLimit,
+                                 @Value("${app.admission.min-limit:2}") int minLimit,
+                                 @Value("${app.admission.max-limit:200}") int maxLimit,
+                                 @Value("${app.admission.target-latency:50ms}") Duration targetLatency,
+                                 @Value("${app.admission.per-product-limit:4}") int perProductLimit) {
+        this.globalLimiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, targetLatency.toNanos());
+        this.perProductLimit = perProductLimit;
+        Gauge.builder("stock.admission.limit", globalLimiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit for stock writes")
+                .register(meterRegistry);
+        Gauge.builder("stock.admission.inflight", globalLimiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Stock writes currently admitted")
+                .register(meterRegistry);
+        this.globalRejections = rejectionCounter(meterRegistry, "global");
+        this.productRejections = rejectionCounter(meterRegistry, "product");
+    }
+
+    /**
+     * Runs {@code action} if both the global and the per-product limit admit it.
+     *
+     * @throws AdmissionRejectedException if either limit is exhausted
+     */
+    public <T> T admit(Long productId, Supplier<T> action) {
+        if (!globalLimiter.tryAcquire()) {
+            globalRejections.increment();
+            throw new AdmissionRejectedException("Stock service overloaded, retry later", true);
+        }
+        if (!tryAcquireProduct(productId)) {
+            globalLimiter.cancel();
+            productRejections.increment();
+            throw new AdmissionRejectedException("Too many concurrent updates for product " + productId, false);
+        }
+
+        long start = System.nanoTime();
+        boolean overloaded = false;
+        try {
+            return action.get();
+        } catch (PessimisticLockingFailureException | QueryTimeoutException | CannotGetJdbcConnectionException e) {
+            overloaded = true;
+            throw e;
+        } finally {
+            releaseProduct(productId);
+            globalLimiter.release(System.nanoTime() - start, overloaded);
+        }
+    }
+
+    private boolean tryAcquireProduct(Long productId) {
+        boolean[] acquired = {false};
+        productInFlight.compute(productId, (id, current) -> {
+            int count = current == null ? 0 : current;
+            if (count >= perProductLimit) {
+                return current;
+            }
+            acquired[0] = true;
+            return count + 1;
+        });
+        return acquired[0];
+    }
+
+    private void releaseProduct(Long productId) {
+        // Entries are removed at zero so the map only holds products with writes in flight
+        productInFlight.computeIfPresent(productId, (id, current) -> current <= 1 ? null : current - 1);
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String scope) {
+        return Counter.builder("stock.admission.rejected")
+                .description("Stock writes rejected by admission control")
+                .tag("scope", scope)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,87 @@
+package com.assessmentpractice.config;
+
+import com.assessmentpractice.datasource.ReadWriteRoutingDataSource;
+import com.assessmentpractice.datasource.ReplicaLagMonitor;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Read/write split, active only when a replica is configured ({@code app.datasource.replica.jdbc-url}).
+ *
+ * The primary pool is built from the regular {@code spring.datasource.*} properties; the replica pool
+ * binds {@code app.datasource.replica.*} (any HikariCP setting, e.g. maximum-pool-size), so each route
+ * is sized independently and reported under its own hikaricp pool tag.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "jdbc-url")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    /**
+     * One-connection copy of the replica pool for lag probes, with a short connection timeout, so a
+     * probe neither waits behind busy reads nor hangs on an unreachable replica.
+     */
+    @Bean
+    public HikariDataSource replicaProbeDataSource(@Qualifier("replicaDataSource") HikariDataSource replicaDataSource,
+                                                   @Value("${app.datasource.routing.probe-timeout:PT2S}") Duration probeTimeout) {
+        HikariConfig config = new HikariConfig();
+        replicaDataSource.copyStateTo(config);
+        config.setPoolName("replica-probe");
+        config.setMaximumPoolSize(1);
+        config.setMinimumIdle(0);
+        config.setConnectionTimeout(probeTimeout.toMillis());
+        config.setInitializationFailTimeout(-1);
+        return new HikariDataSource(config);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaProbeDataSource") DataSource replicaProbeDataSource,
+                                               MeterRegistry meterRegistry,
+                                               @Value("${app.datasource.routing.lag-query:}") String lagQuery,
+                                               @Value("${app.datasource.routing.max-replica-lag:5s}") Duration maxLag,
+                                               @Value("${app.datasource.routing.probe-timeout:PT2S}") Duration probeTimeout) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replicaProbeDataSource, lagQuery, maxLag, probeTimeout);
+        monitor.bindTo(meterRegistry);
+        // First probe at startup; later ones run on the scheduler
+        monitor.refresh();
+        return monitor;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor, MeterRegistry meterRegistry) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(
+                primaryDataSource, replicaDataSource, replicaLagMonitor, meterRegistry));
+    }
+}
@@ -0,0 +1,38 @@
+package com.assessmentpractice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cross-cutting metrics that Spring Boot does not record on its own.
+ *
+ * Endpoint latency (http.server.requests) and HikariCP pool wait (hikaricp.connections.acquire)
+ * are recorded by auto-configuration; their histogram buckets are tuned in application.properties.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Records how long @Async tasks wait in the executor queue before a worker picks them up.
+     * Spring Boot applies a unique TaskDecorator bean to the auto-configured applicationTaskExecutor.
+     */
+    @Bean
+    public TaskDecorator queueTimeTaskDecorator(MeterRegistry meterRegistry) {
+        Timer queueTimer = Timer.builder("async.executor.queue.time")
+                .description("Time @Async tasks spend queued before execution")
+                .tag("executor", "applicationTaskExecutor")
+                .register(meterRegistry);
+        return runnable -> {
+            long submittedAt = System.nanoTime();
+            return () -> {
+                queueTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                runnable.run();
+            };
+        };
+    }
+}
@@ -0,0 +1,52 @@
+package com.assessmentpractice.config;
+
+import com.assessmentpractice.sql.ProfilingDataSource;
+import com.assessmentpractice.sql.SqlProfilingFilter;
+import com.assessmentpractice.sql.SqlProfilingStatementInspector;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Wires the SQL statement profiler: JDBC proxying of the application DataSource, the Hibernate
+ * StatementInspector and a per-request profiling scope. Off unless {@code app.sql-profiler.enabled=true}
+ * (set by the dev profile and the tests), since every statement pays for the proxying.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sql-profiler.enabled", havingValue = "true")
+public class SqlProfilingConfig {
+
+    /**
+     * Only the application-facing "dataSource" bean is wrapped; the pools behind a read/write
+     * router are left alone so each statement is counted once.
+     */
+    @Bean
+    public static BeanPostProcessor profilingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof ProfilingDataSource)) {
+                    return new ProfilingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlProfilingStatementInspector() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR,
+                SqlProfilingStatementInspector.class.getName());
+    }
+
+    @Bean
+    public SqlProfilingFilter sqlProfilingFilter() {
+        return new SqlProfilingFilter();
+    }
+}
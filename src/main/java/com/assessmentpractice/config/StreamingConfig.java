@@ -0,0 +1,48 @@
+package com.assessmentpractice.config;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * Async MVC settings for streaming responses (StreamingResponseBody, used by the ledger export).
+ *
+ * Streams run on their own bounded executor instead of the shared applicationTaskExecutor, and the
+ * async request timeout is set explicitly: the container default (about 30s on Tomcat) would cut
+ * exports off part-way. The executor is deliberately not a bean: any Executor bean would stop Spring Boot
+ * from creating applicationTaskExecutor.
+ */
+@Configuration
+public class StreamingConfig implements WebMvcConfigurer, DisposableBean {
+
+    private final Duration requestTimeout;
+    private final ThreadPoolTaskExecutor streamingExecutor;
+
+    public StreamingConfig(@Value("${app.export.request-timeout:PT30M}") Duration requestTimeout,
+                           @Value("${app.export.stream-pool-size:4}") int poolSize) {
+        this.requestTimeout = requestTimeout;
+        this.streamingExecutor = new ThreadPoolTaskExecutor();
+        this.streamingExecutor.setCorePoolSize(poolSize);
+        this.streamingExecutor.setMaxPoolSize(poolSize);
+        this.streamingExecutor.setQueueCapacity(poolSize * 2);
+        this.streamingExecutor.setThreadNamePrefix("stream-");
+        this.streamingExecutor.initialize();
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        // Runs after Spring Boot's own WebMvcConfigurer, so these settings take precedence
+        configurer.setTaskExecutor(streamingExecutor);
+        configurer.setDefaultTimeout(requestTimeout.toMillis());
+    }
+
+    @Override
+    public void destroy() {
+        streamingExecutor.shutdown();
+    }
+}
@@ -0,0 +1,87 @@
+package com.assessmentpractice.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Decides whether the replica is fresh enough to serve reads.
+ *
+ * The lag query must return the replica delay in seconds (e.g. on PostgreSQL:
+ * {@code SELECT COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)}).
+ * It runs on the scheduler every {@code lag-check-interval} through its own probe connection with
+ * a short query timeout; routing only reads the last result, so a hanging replica never blocks a
+ * request. Without a lag query the replica is always considered usable.
+ */
+public class ReplicaLagMonitor {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final DataSource probe;
+    private final String lagQuery;
+    private final double maxLagSeconds;
+    private final int queryTimeoutSeconds;
+
+    private volatile boolean usable;
+    private volatile double lagSeconds;
+
+    public ReplicaLagMonitor(DataSource probe, String lagQuery, Duration maxLag, Duration probeTimeout) {
+        this.probe = probe;
+        this.lagQuery = lagQuery == null || lagQuery.isBlank() ? null : lagQuery;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.queryTimeoutSeconds = (int) Math.max(1, probeTimeout.toSeconds());
+        // Until the first probe, reads stay on the primary
+        this.usable = this.lagQuery == null;
+    }
+
+    public void bindTo(MeterRegistry meterRegistry) {
+        Gauge.builder("datasource.replica.lag", this, monitor -> monitor.lagSeconds)
+                .description("Last observed replica lag")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replica.usable", this, monitor -> monitor.usable ? 1 : 0)
+                .description("1 while reads are routed to the replica, 0 while they fall back to the primary")
+                .register(meterRegistry);
+    }
+
+    public boolean isReplicaUsable() {
+        return usable;
+    }
+
+    public double getLagSeconds() {
+        return lagSeconds;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.routing.lag-check-interval:PT1S}")
+    public void refresh() {
+        if (lagQuery == null) {
+            return;
+        }
+        try (Connection connection = probe.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(queryTimeoutSeconds);
+            try (ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                lagSeconds = resultSet.next() ? resultSet.getDouble(1) : 0;
+            }
+            boolean fresh = lagSeconds <= maxLagSeconds;
+            if (fresh != usable) {
+                logger.warn("Replica {} (lag {}s, max {}s)", fresh ? "back in rotation" : "lagging, reads fall back to primary",
+                        lagSeconds, maxLagSeconds);
+            }
+            usable = fresh;
+        } catch (SQLException e) {
+            if (usable) {
+                logger.warn("Replica lag check failed, reads fall back to primary", e);
+            }
+            usable = false;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.assessmentpractice.dto;
+
+/**
+ * Checksum manifest written next to every ledger export file.
+ * {@code lastId} is the watermark to pass as {@code sinceId} for the next incremental export.
+ */
+public record ExportManifest(String file, long sinceId, String since, long lastId, long rows, long bytes,
+                             String sha256, String createdAt) {
+}
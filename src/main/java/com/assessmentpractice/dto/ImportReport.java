@@ -0,0 +1,11 @@
+package com.assessmentpractice.dto;
+
+/**
+ * Outcome of a bulk catalog import.
+ */
+public record ImportReport(long rows, int chunks, long elapsedMillis, boolean copyFastPath) {
+
+    public long rowsPerSecond() {
+        return elapsedMillis == 0 ? rows : rows * 1000 / elapsedMillis;
+    }
+}
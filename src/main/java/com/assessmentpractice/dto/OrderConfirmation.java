@@ -0,0 +1,9 @@
+package com.assessmentpractice.dto;
+
+import com.assessmentpractice.entity.Order;
+
+/**
+ * A placed order and the number of lines it reserved, after lines for the same product were merged.
+ */
+public record OrderConfirmation(Order order, int lines) {
+}
@@ -0,0 +1,12 @@
+package com.assessmentpractice.dto;
+
+import java.util.List;
+
+/**
+ * Cart checkout request: one customer, any number of product lines.
+ */
+public record OrderRequest(String customerName, List<Line> lines) {
+
+    public record Line(Long productId, int quantity) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.assessmentpractice.dto;
+
+import java.util.List;
+
+/**
+ * Result of a reconciliation run. {@code drifts} is capped; {@code driftCount} is the full count.
+ */
+public record ReconciliationReport(int productsChecked, long logsProcessed, int ranges, int driftCount,
+                                   List<Drift> drifts, long elapsedMillis) {
+
+    /**
+     * A product whose qty differs from its opening stock plus the sum of its ledger deltas.
+     */
+    public record Drift(Long productId, int qty, long ledgerSum, long drift) {
+    }
+}
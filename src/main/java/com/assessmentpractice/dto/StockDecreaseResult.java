@@ -0,0 +1,31 @@
+package com.assessmentpractice.dto;
+
+/**
+ * Outcome of {@code StockService.tryDecreaseStock}. {@code available} is only meaningful for
+ * {@link Status#INSUFFICIENT}; OK and NOT_FOUND are shared instances so those outcomes allocate nothing.
+ */
+public record StockDecreaseResult(Status status, int available) {
+
+    public enum Status {
+        OK, INSUFFICIENT, NOT_FOUND
+    }
+
+    private static final StockDecreaseResult OK = new StockDecreaseResult(Status.OK, 0);
+    private static final StockDecreaseResult NOT_FOUND = new StockDecreaseResult(Status.NOT_FOUND, 0);
+
+    public static StockDecreaseResult ok() {
+        return OK;
+    }
+
+    public static StockDecreaseResult insufficient(int available) {
+        return new StockDecreaseResult(Status.INSUFFICIENT, available);
+    }
+
+    public static StockDecreaseResult notFound() {
+        return NOT_FOUND;
+    }
+
+    public boolean isOk() {
+        return status == Status.OK;
+    }
+}
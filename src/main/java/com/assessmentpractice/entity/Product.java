@@ -1,20 +1,32 @@
 package com.assessmentpractice.entity;
 
 import jakarta.persistence.*;
+import java.math.BigDecimal;
 
+// Column names follow the products table in db/procs.sql so JPA and the stored procedures share it
 @Entity
 @Table(name = "products")
 public class Product {
+    // Ids are handed out in blocks of 50 from the sequence so inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "products_product_id_seq", allocationSize = 50)
+    @Column(name = "product_id")
     private Long id;
 
-    @Column(nullable = false)
+    @Column(name = "product_name", nullable = false)
     private String name;
 
-    @Column(nullable = false)
+    @Column(name = "stock", nullable = false)
     private Integer qty;
 
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal price = BigDecimal.ZERO;
+
+    // Starting balance that stock logs are reconciled against; defaults to qty at insert time
+    @Column(name = "opening_stock", nullable = false)
+    private Integer openingQty;
+
     public Product() {
     }
 
@@ -46,4 +58,27 @@ public class Product {
     public void setQty(Integer qty) {
         this.qty = qty;
     }
+
+    public Integer getOpeningQty() {
+        return openingQty;
+    }
+
+    public void setOpeningQty(Integer openingQty) {
+        this.openingQty = openingQty;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    @PrePersist
+    void recordOpeningQty() {
+        if (openingQty == null) {
+            openingQty = qty;
+        }
+    }
 }
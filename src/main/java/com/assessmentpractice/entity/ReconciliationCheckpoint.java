@@ -0,0 +1,66 @@
+package com.assessmentpractice.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Per-product reconciliation progress: the ledger has been summed up to {@code lastLogId}
+ * and those deltas add up to {@code runningSum}.
+ */
+@Entity
+@Table(name = "stock_reconciliation_checkpoints")
+public class ReconciliationCheckpoint {
+    @Id
+    private Long productId;
+
+    @Column(nullable = false)
+    private Long lastLogId;
+
+    @Column(nullable = false)
+    private Long runningSum;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    public ReconciliationCheckpoint() {
+    }
+
+    public ReconciliationCheckpoint(Long productId, Long lastLogId, Long runningSum) {
+        this.productId = productId;
+        this.lastLogId = lastLogId;
+        this.runningSum = runningSum;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Long getLastLogId() {
+        return lastLogId;
+    }
+
+    public void setLastLogId(Long lastLogId) {
+        this.lastLogId = lastLogId;
+    }
+
+    public Long getRunningSum() {
+        return runningSum;
+    }
+
+    public void setRunningSum(Long runningSum) {
+        this.runningSum = runningSum;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -3,8 +3,12 @@ package com.assessmentpractice.entity;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
+// On PostgreSQL stock_logs is range-partitioned by created_at (see db/procs.sql)
 @Entity
-@Table(name = "stock_logs")
+@Table(name = "stock_logs", indexes = {
+        @Index(name = "idx_stock_logs_product_created", columnList = "productId, createdAt"),
+        @Index(name = "idx_stock_logs_created", columnList = "createdAt")
+})
 public class StockLog {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
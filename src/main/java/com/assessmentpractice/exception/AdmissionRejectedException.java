@@ -0,0 +1,21 @@
+package com.assessmentpractice.exception;
+
+/**
+ * Thrown when the stock write path is saturated and a request is shed instead of queued.
+ * Built without a stack trace: rejections are expected under overload and must stay cheap.
+ */
+public class AdmissionRejectedException extends RuntimeException {
+    private final boolean global;
+
+    public AdmissionRejectedException(String message, boolean global) {
+        super(message, null, false, false);
+        this.global = global;
+    }
+
+    /**
+     * True when the global limit was hit (service overloaded), false for a single hot product.
+     */
+    public boolean isGlobal() {
+        return global;
+    }
+}
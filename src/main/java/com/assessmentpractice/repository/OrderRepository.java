@@ -0,0 +1,9 @@
+package com.assessmentpractice.repository;
+
+import com.assessmentpractice.entity.Order;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OrderRepository extends JpaRepository<Order, Long> {
+}
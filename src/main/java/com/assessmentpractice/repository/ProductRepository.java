@@ -1,9 +1,21 @@
 package com.assessmentpractice.repository;
 
 import com.assessmentpractice.entity.Product;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
+
+    /**
+     * Loads and row-locks all given products in one SELECT ... FOR UPDATE. Rows are returned and locked
+     * in ascending id order, so concurrent multi-product transactions cannot deadlock on each other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Product> findByIdInOrderByIdAsc(Collection<Long> ids);
 }
@@ -1,12 +1,33 @@
 package com.assessmentpractice.repository;
 
 import com.assessmentpractice.entity.StockLog;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface StockLogRepository extends JpaRepository<StockLog, Long> {
+    // History reads are read-only so they are served by the replica when one is configured
+    @Transactional(readOnly = true)
     List<StockLog> findByProductId(Long productId);
+
+    // Time-window reads use half-open [from, to) ranges on created_at so PostgreSQL can prune partitions
+
+    @Transactional(readOnly = true)
+    @Query("select l from StockLog l where l.productId = :productId"
+            + " and l.createdAt >= :from and l.createdAt < :to order by l.createdAt, l.id")
+    List<StockLog> findByProductIdInWindow(@Param("productId") Long productId,
+                                           @Param("from") LocalDateTime from,
+                                           @Param("to") LocalDateTime to);
+
+    @Transactional(readOnly = true)
+    @Query("select l from StockLog l where l.createdAt >= :from and l.createdAt < :to order by l.createdAt, l.id")
+    Slice<StockLog> findInWindow(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to, Pageable pageable);
 }
@@ -0,0 +1,281 @@
+package com.assessmentpractice.service;
+
+import com.assessmentpractice.dto.ImportReport;
+import com.assessmentpractice.entity.Product;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams a product catalog (CSV or NDJSON) into the database with constant memory.
+ *
+ * Input is parsed line by line into chunks of {@code chunkSize} rows; each chunk is written and
+ * committed in its own transaction together with an opening-balance stock log per product
+ * (delta = initial qty), so the ledger explains every imported quantity and the products' own
+ * opening stock is 0.
+ * On PostgreSQL a chunk is loaded with COPY; elsewhere products are persisted with JDBC batching
+ * and the persistence context is flushed and cleared every {@code batchSize} rows.
+ *
+ * Every row needs a non-blank name, a qty >= 0 and a price >= 0. An invalid row aborts the import;
+ * the error reports the last line of the last committed chunk so the rest of the file can be resumed.
+ */
+@Service
+public class CatalogImportService {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogImportService.class);
+
+    private static final String INSERT_STOCK_LOG =
+            "INSERT INTO stock_logs (product_id, delta, created_at) VALUES (?, ?, ?)";
+    private static final String COPY_PRODUCTS =
+            "COPY products (product_id, product_name, stock, price, opening_stock) FROM STDIN WITH (FORMAT csv)";
+    private static final String COPY_STOCK_LOGS =
+            "COPY stock_logs (product_id, delta, created_at) FROM STDIN WITH (FORMAT csv)";
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    private record CatalogRow(String name, int qty, BigDecimal price) {
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int batchSize;
+    private volatile Boolean postgres;
+
+    public CatalogImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper,
+                                @Value("${app.import.chunk-size:5000}") int chunkSize,
+                                @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.batchSize = batchSize;
+    }
+
+    public ImportReport importCatalog(InputStream input, Format format) {
+        boolean copyFastPath = isPostgres();
+        long started = System.nanoTime();
+        long rows = 0;
+        int chunks = 0;
+        long lineNumber = 0;
+        long committedLine = 0;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            List<CatalogRow> chunk = new ArrayList<>(chunkSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || (lineNumber == 1 && format == Format.CSV && isCsvHeader(line))) {
+                    continue;
+                }
+                try {
+                    chunk.add(parse(line, format, lineNumber));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException(e.getMessage() + " (" + rows + " rows up to line "
+                            + committedLine + " are committed; resume after line " + committedLine + ")", e);
+                }
+                if (chunk.size() == chunkSize) {
+                    rows += writeChunk(chunk, copyFastPath);
+                    committedLine = lineNumber;
+                    chunks++;
+                    logProgress(rows, started);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                rows += writeChunk(chunk, copyFastPath);
+                chunks++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Catalog import failed after " + rows + " rows (committed up to line "
+                    + committedLine + ")", e);
+        }
+
+        ImportReport report = new ImportReport(rows, chunks, elapsedMillis(started), copyFastPath);
+        logger.info("Catalog import finished: {} rows in {} chunks, {} ms ({} rows/s, copy={})",
+                report.rows(), report.chunks(), report.elapsedMillis(), report.rowsPerSecond(), copyFastPath);
+        return report;
+    }
+
+    private int writeChunk(List<CatalogRow> chunk, boolean copyFastPath) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (copyFastPath) {
+                copyChunk(chunk);
+            } else {
+                persistChunk(chunk);
+            }
+        });
+        return chunk.size();
+    }
+
+    private void persistChunk(List<CatalogRow> chunk) {
+        List<Product> batch = new ArrayList<>(batchSize);
+        for (CatalogRow row : chunk) {
+            Product product = new Product(row.name(), row.qty());
+            product.setPrice(row.price());
+            product.setOpeningQty(0);
+            entityManager.persist(product);
+            batch.add(product);
+            if (batch.size() == batchSize) {
+                flushBatch(batch);
+            }
+        }
+        if (!batch.isEmpty()) {
+            flushBatch(batch);
+        }
+    }
+
+    private void flushBatch(List<Product> batch) {
+        entityManager.flush();
+        entityManager.clear();
+        // Opening balances (delta is positive, the product's initial qty)
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_STOCK_LOG, batch, batch.size(), (ps, product) -> {
+            ps.setLong(1, product.getId());
+            ps.setInt(2, product.getQty());
+            ps.setTimestamp(3, now);
+        });
+        batch.clear();
+    }
+
+    private void copyChunk(List<CatalogRow> chunk) {
+        // Ids come from the same pooled sequence generator as JPA inserts, so both paths can coexist
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        BeforeExecutionGenerator idGenerator = (BeforeExecutionGenerator) session.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(Product.class).getGenerator();
+
+        StringBuilder products = new StringBuilder(chunk.size() * 48);
+        StringBuilder logs = new StringBuilder(chunk.size() * 40);
+        String now = LocalDateTime.now().toString();
+        for (CatalogRow row : chunk) {
+            Object id = idGenerator.generate(session, null, null, EventType.INSERT);
+            products.append(id).append(',').append(csvQuote(row.name())).append(',')
+                    .append(row.qty()).append(',').append(row.price().toPlainString()).append(",0\n");
+            logs.append(id).append(',').append(row.qty()).append(',').append(now).append('\n');
+        }
+
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try {
+                CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+                copyManager.copyIn(COPY_PRODUCTS, new StringReader(products.toString()));
+                copyManager.copyIn(COPY_STOCK_LOGS, new StringReader(logs.toString()));
+            } catch (IOException e) {
+                throw new SQLException("COPY failed", e);
+            }
+            return null;
+        });
+    }
+
+    private CatalogRow parse(String line, Format format, long lineNumber) {
+        CatalogRow row;
+        try {
+            if (format == Format.NDJSON) {
+                JsonNode node = objectMapper.readTree(line);
+                JsonNode qty = node.path("qty");
+                JsonNode price = node.path("price");
+                if (!qty.canConvertToInt() || !qty.isIntegralNumber() || price.isMissingNode() || price.isNull()) {
+                    throw new IllegalArgumentException("qty and price are required");
+                }
+                row = new CatalogRow(node.path("name").asText(""), qty.intValue(), new BigDecimal(price.asText()));
+            } else {
+                List<String> fields = splitCsv(line);
+                if (fields.size() < 3) {
+                    throw new IllegalArgumentException("expected name,qty,price");
+                }
+                row = new CatalogRow(fields.get(0), Integer.parseInt(fields.get(1).trim()),
+                        new BigDecimal(fields.get(2).trim()));
+            }
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalArgumentException("Invalid catalog row at line " + lineNumber + ": " + line, e);
+        }
+        if (row.name().isBlank() || row.qty() < 0 || row.price().signum() < 0) {
+            throw new IllegalArgumentException("Invalid catalog row at line " + lineNumber
+                    + ": name must not be blank, qty and price must not be negative: " + line);
+        }
+        return row;
+    }
+
+    private static boolean isCsvHeader(String line) {
+        return line.regionMatches(true, 0, "name,", 0, 5);
+    }
+
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>(3);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == ',' && !quoted) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String csvQuote(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName()));
+        }
+        return postgres;
+    }
+
+    private void logProgress(long rows, long started) {
+        long elapsed = elapsedMillis(started);
+        logger.info("Catalog import progress: {} rows, {} ms ({} rows/s)",
+                rows, elapsed, elapsed == 0 ? rows : rows * 1000 / elapsed);
+    }
+
+    private static long elapsedMillis(long startedNanos) {
+        return (System.nanoTime() - startedNanos) / 1_000_000;
+    }
+}
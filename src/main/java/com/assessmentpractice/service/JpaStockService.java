@@ -0,0 +1,153 @@
+package com.assessmentpractice.service;
+
+import com.assessmentpractice.dto.StockDecreaseResult;
+import com.assessmentpractice.entity.Product;
+import com.assessmentpractice.entity.StockLog;
+import com.assessmentpractice.exception.InsufficientStockException;
+import com.assessmentpractice.repository.ProductRepository;
+import com.assessmentpractice.repository.StockLogRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * JPA stock engine: load, check, update and log as separate statements in one transaction.
+ * Used on H2 and any profile without the stored procedures from db/procs.sql.
+ */
+@Service
+@Profile("!postgres")
+public class JpaStockService implements StockService {
+    private static final String SELECT_STOCK = "SELECT stock FROM products WHERE product_id = ?";
+
+    private final ProductRepository productRepository;
+    private final StockLogRepository stockLogRepository;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final StockAvailabilityCache availabilityCache = new StockAvailabilityCache();
+
+    private final Timer loadTimer;
+    private final Timer checkTimer;
+    private final Timer updateTimer;
+    private final Timer logInsertTimer;
+    private final Timer commitTimer;
+
+    public JpaStockService(ProductRepository productRepository, StockLogRepository stockLogRepository,
+                        MeterRegistry meterRegistry, PlatformTransactionManager transactionManager,
+                        JdbcTemplate jdbcTemplate) {
+        this.productRepository = productRepository;
+        this.stockLogRepository = stockLogRepository;
+        this.meterRegistry = meterRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jdbcTemplate = jdbcTemplate;
+        this.loadTimer = phaseTimer("load");
+        this.checkTimer = phaseTimer("check");
+        this.updateTimer = phaseTimer("update");
+        this.logInsertTimer = phaseTimer("log_insert");
+        this.commitTimer = phaseTimer("commit");
+    }
+
+    @Override
+    @Transactional
+    public void decreaseStock(Long productId, int qty) {
+        if (qty <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive: " + qty);
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new InsufficientStockException("Product not found with id: " + productId));
+        sample.stop(loadTimer);
+
+        sample = Timer.start(meterRegistry);
+        boolean sufficient = product.getQty() >= qty;
+        sample.stop(checkTimer);
+        if (!sufficient) {
+            throw new InsufficientStockException(
+                    String.format("Insufficient stock for product %s. Available: %d, Requested: %d",
+                            product.getName(), product.getQty(), qty)
+            );
+        }
+
+        // Decrease stock (flushed here so the UPDATE is timed as its own phase rather than inside commit)
+        sample = Timer.start(meterRegistry);
+        product.setQty(product.getQty() - qty);
+        productRepository.saveAndFlush(product);
+        sample.stop(updateTimer);
+
+        // Log the stock change (delta is negative for decrease)
+        sample = Timer.start(meterRegistry);
+        StockLog stockLog = new StockLog(productId, -qty);
+        stockLogRepository.save(stockLog);
+        sample.stop(logInsertTimer);
+
+        timeCommit();
+    }
+
+    @Override
+    public StockDecreaseResult tryDecreaseStock(Long productId, int qty) {
+        if (qty <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive: " + qty);
+        }
+        StockDecreaseResult known = availabilityCache.shortCircuit(productId, qty, this::currentStock);
+        if (known != null) {
+            return known;
+        }
+
+        // Failures return before any write, so the transaction commits empty instead of rolling back
+        return transactionTemplate.execute(status -> {
+            Product product = productRepository.findById(productId).orElse(null);
+            if (product == null) {
+                return StockDecreaseResult.notFound();
+            }
+            if (product.getQty() < qty) {
+                availabilityCache.recordAvailable(productId, product.getQty());
+                return StockDecreaseResult.insufficient(product.getQty());
+            }
+            product.setQty(product.getQty() - qty);
+            stockLogRepository.save(new StockLog(productId, -qty));
+            return StockDecreaseResult.ok();
+        });
+    }
+
+    private Integer currentStock(Long productId) {
+        List<Integer> stock = jdbcTemplate.queryForList(SELECT_STOCK, Integer.class, productId);
+        return stock.isEmpty() ? null : stock.get(0);
+    }
+
+    private void timeCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private Timer.Sample commitSample;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                commitSample = Timer.start(meterRegistry);
+            }
+
+            @Override
+            public void afterCommit() {
+                if (commitSample != null) {
+                    commitSample.stop(commitTimer);
+                }
+            }
+        });
+    }
+
+    private Timer phaseTimer(String phase) {
+        return Timer.builder(PHASE_TIMER_NAME)
+                .description("Per-phase latency of StockService.decreaseStock")
+                .tag("phase", phase)
+                .register(meterRegistry);
+    }
+}
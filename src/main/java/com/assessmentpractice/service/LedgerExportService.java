@@ -0,0 +1,173 @@
+package com.assessmentpractice.service;
+
+import com.assessmentpractice.dto.ExportManifest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports the stock ledger (stock_logs) as gzip-compressed NDJSON, one row per line.
+ *
+ * Rows are read through a cursor (fetch size, read-only transaction) and encoded straight into the
+ * compressed stream, so heap use does not depend on the ledger size. Exports are incremental:
+ * only rows with {@code id > sinceId} and {@code created_at >= since} are written.
+ *
+ * An export stops below the first row newer than {@code settle-delay}; it and everything after it are
+ * left for the next export. Identity ids are assigned before commit, so a recent row may still be
+ * followed by a lower id that commits later, and created_at is not ordered by id: moving the
+ * {@code lastId} watermark past either would skip that row forever.
+ */
+@Service
+public class LedgerExportService {
+    private static final Logger logger = LoggerFactory.getLogger(LedgerExportService.class);
+
+    private static final String SELECT_LOGS =
+            "SELECT id, product_id, delta, created_at FROM stock_logs"
+                    + " WHERE id > ? AND created_at >= ?"
+                    + " AND id < COALESCE((SELECT MIN(id) FROM stock_logs WHERE id > ? AND created_at >= ?), "
+                    + Long.MAX_VALUE + ") ORDER BY id";
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public record ExportResult(long rows, long lastId) {
+    }
+
+    private final JdbcTemplate cursorTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final Path exportDir;
+    private final Duration settleDelay;
+
+    public LedgerExportService(DataSource dataSource, PlatformTransactionManager transactionManager,
+                               ObjectMapper objectMapper,
+                               @Value("${app.export.dir:exports}") String exportDir,
+                               @Value("${app.export.fetch-size:1000}") int fetchSize,
+                               @Value("${app.export.settle-delay:PT1M}") Duration settleDelay) {
+        // PostgreSQL only streams with a fetch size inside a transaction; otherwise it buffers the whole result
+        this.cursorTemplate = new JdbcTemplate(dataSource);
+        this.cursorTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.exportDir = Paths.get(exportDir);
+        this.settleDelay = settleDelay;
+    }
+
+    /**
+     * Streams matching rows into {@code out} as gzip NDJSON. The caller owns {@code out}; it is finished, not closed.
+     */
+    public ExportResult export(OutputStream out, long sinceId, LocalDateTime since) {
+        try {
+            GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE);
+            Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), BUFFER_SIZE);
+            ExportResult result = readOnlyTransaction.execute(status -> writeRows(writer, sinceId, since));
+            writer.flush();
+            gzip.finish();
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ledger export failed", e);
+        }
+    }
+
+    /**
+     * Writes an export file through a FileChannel plus a {@code .manifest.json} with its SHA-256 and watermark.
+     * The data file is only renamed into place once it is complete and synced.
+     */
+    public ExportManifest exportToFile(long sinceId, LocalDateTime since) {
+        MessageDigest sha256 = sha256();
+        Path partial = exportDir.resolve("stock_logs_since_" + sinceId + "_" + System.currentTimeMillis() + ".part");
+        try {
+            Files.createDirectories(exportDir);
+            ExportResult result;
+            long bytes;
+            try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                OutputStream out = new DigestOutputStream(Channels.newOutputStream(channel), sha256);
+                result = export(out, sinceId, since);
+                out.flush();
+                channel.force(true);
+                bytes = channel.size();
+            }
+
+            Path file = exportDir.resolve("stock_logs_" + (sinceId + 1) + "_" + result.lastId() + ".ndjson.gz");
+            Files.move(partial, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            ExportManifest manifest = new ExportManifest(file.getFileName().toString(), sinceId,
+                    since != null ? since.toString() : null, result.lastId(), result.rows(), bytes,
+                    HexFormat.of().formatHex(sha256.digest()), LocalDateTime.now().toString());
+            objectMapper.writerWithDefaultPrettyPrinter()
+                    .writeValue(exportDir.resolve(file.getFileName() + ".manifest.json").toFile(), manifest);
+            logger.info("Ledger export {}: {} rows, {} bytes, next sinceId={}",
+                    manifest.file(), manifest.rows(), manifest.bytes(), manifest.lastId());
+            return manifest;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ledger export to " + exportDir + " failed", e);
+        } finally {
+            try {
+                Files.deleteIfExists(partial);
+            } catch (IOException e) {
+                logger.warn("Could not remove partial export {}", partial, e);
+            }
+        }
+    }
+
+    private ExportResult writeRows(Writer writer, long sinceId, LocalDateTime since) {
+        long[] rowsAndLastId = {0, sinceId};
+        cursorTemplate.query(SELECT_LOGS, rs -> {
+            long id = rs.getLong(1);
+            try {
+                writer.write("{\"id\":");
+                writer.write(Long.toString(id));
+                writer.write(",\"product_id\":");
+                writer.write(Long.toString(rs.getLong(2)));
+                writer.write(",\"delta\":");
+                writer.write(Integer.toString(rs.getInt(3)));
+                writer.write(",\"created_at\":\"");
+                writer.write(rs.getTimestamp(4).toLocalDateTime().toString());
+                writer.write("\"}\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            rowsAndLastId[0]++;
+            rowsAndLastId[1] = id;
+        }, sinceId, Timestamp.valueOf(since != null ? since : BEGINNING),
+                sinceId, Timestamp.valueOf(LocalDateTime.now().minus(settleDelay)));
+        return new ExportResult(rowsAndLastId[0], rowsAndLastId[1]);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.assessmentpractice.service;
+
+import com.assessmentpractice.dto.OrderConfirmation;
+import com.assessmentpractice.dto.OrderRequest;
+import com.assessmentpractice.entity.Order;
+import com.assessmentpractice.entity.Product;
+import com.assessmentpractice.exception.InsufficientStockException;
+import com.assessmentpractice.repository.OrderRepository;
+import com.assessmentpractice.repository.ProductRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Multi-line checkout. The round-trip count is the same for any cart size:
+ * one locking SELECT for all products, one order INSERT, one batch each for order items,
+ * stock logs and product updates, then commit.
+ */
+@Service
+public class OrderService {
+    static final String STATUS_CONFIRMED = "confirmed";
+
+    private static final String INSERT_ORDER_ITEM =
+            "INSERT INTO order_items (order_id, product_id, quantity, price) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_STOCK_LOG =
+            "INSERT INTO stock_logs (product_id, delta, created_at) VALUES (?, ?, ?)";
+
+    private final ProductRepository productRepository;
+    private final OrderRepository orderRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderService(ProductRepository productRepository, OrderRepository orderRepository,
+                        JdbcTemplate jdbcTemplate) {
+        this.productRepository = productRepository;
+        this.orderRepository = orderRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Prices every line and reserves stock for all of them atomically. Lines for the same product
+     * are merged into one order item.
+     *
+     * @throws InsufficientStockException if any product is missing or short; nothing is reserved in that case
+     */
+    @Transactional
+    public OrderConfirmation placeOrder(OrderRequest request) {
+        SortedMap<Long, Integer> quantities = mergeLines(request);
+
+        // Lock all rows in ascending id order with a single statement
+        List<Product> products = productRepository.findByIdInOrderByIdAsc(quantities.keySet());
+        if (products.size() != quantities.size()) {
+            Long missing = quantities.keySet().stream()
+                    .filter(id -> products.stream().noneMatch(product -> product.getId().equals(id)))
+                    .findFirst()
+                    .orElseThrow();
+            throw new InsufficientStockException("Product not found with id: " + missing);
+        }
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (Product product : products) {
+            int requested = quantities.get(product.getId());
+            if (product.getQty() < requested) {
+                throw new InsufficientStockException(
+                        String.format("Insufficient stock for product %s. Available: %d, Requested: %d",
+                                product.getName(), product.getQty(), requested)
+                );
+            }
+            total = total.add(product.getPrice().multiply(BigDecimal.valueOf(requested)));
+        }
+
+        // Product updates are flushed as one JDBC batch at commit (hibernate.jdbc.batch_size)
+        for (Product product : products) {
+            product.setQty(product.getQty() - quantities.get(product.getId()));
+        }
+
+        Order order = orderRepository.save(new Order(request.customerName(), total, STATUS_CONFIRMED));
+        Long orderId = order.getId();
+
+        jdbcTemplate.batchUpdate(INSERT_ORDER_ITEM, products, products.size(), (ps, product) -> {
+            ps.setLong(1, orderId);
+            ps.setLong(2, product.getId());
+            ps.setInt(3, quantities.get(product.getId()));
+            ps.setBigDecimal(4, product.getPrice());
+        });
+
+        // Log the stock changes (delta is negative for decrease)
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_STOCK_LOG, products, products.size(), (ps, product) -> {
+            ps.setLong(1, product.getId());
+            ps.setInt(2, -quantities.get(product.getId()));
+            ps.setTimestamp(3, now);
+        });
+
+        return new OrderConfirmation(order, products.size());
+    }
+
+    private static SortedMap<Long, Integer> mergeLines(OrderRequest request) {
+        if (request.lines() == null || request.lines().isEmpty()) {
+            throw new IllegalArgumentException("Order must contain at least one line");
+        }
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        for (OrderRequest.Line line : request.lines()) {
+            if (line.productId() == null || line.quantity() <= 0) {
+                throw new IllegalArgumentException("Invalid order line: " + line);
+            }
+            quantities.merge(line.productId(), line.quantity(), Integer::sum);
+        }
+        return quantities;
+    }
+}
@@ -0,0 +1,117 @@
+package com.assessmentpractice.service;
+
+import com.assessmentpractice.dto.StockDecreaseResult;
+import com.assessmentpractice.exception.InsufficientStockException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.CallableStatementCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * PostgreSQL stock engine: delegates to the decrease_stock function from db/procs.sql, which locks,
+ * checks, updates and logs in a single server-side call (one round trip instead of four plus commit).
+ */
+@Service
+@Profile("postgres")
+public class ProcedureStockService implements StockService {
+    private static final String DECREASE_STOCK_CALL = "{? = call decrease_stock(?, ?)}";
+    private static final String SELECT_STOCK = "SELECT stock FROM products WHERE product_id = ?";
+
+    // SQLSTATE of a plain RAISE EXCEPTION, used by the functions for "product not found"
+    private static final String RAISE_EXCEPTION_STATE = "P0001";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Timer callTimer;
+    private final StockAvailabilityCache availabilityCache = new StockAvailabilityCache();
+
+    public ProcedureStockService(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.callTimer = Timer.builder(PHASE_TIMER_NAME)
+                .description("Per-phase latency of StockService.decreaseStock")
+                .tag("phase", "call")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void decreaseStock(Long productId, int qty) {
+        if (qty <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive: " + qty);
+        }
+        boolean decreased;
+        try {
+            decreased = callDecreaseStock(productId, qty);
+        } catch (DataAccessException e) {
+            if (isRaisedException(e)) {
+                throw new InsufficientStockException("Product not found with id: " + productId, e);
+            }
+            throw e;
+        }
+
+        if (!decreased) {
+            throw new InsufficientStockException(
+                    String.format("Insufficient stock for product %d. Requested: %d", productId, qty));
+        }
+    }
+
+    @Override
+    public StockDecreaseResult tryDecreaseStock(Long productId, int qty) {
+        if (qty <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive: " + qty);
+        }
+        StockDecreaseResult known = availabilityCache.shortCircuit(productId, qty, this::currentStock);
+        if (known != null) {
+            return known;
+        }
+
+        boolean decreased;
+        try {
+            decreased = callDecreaseStock(productId, qty);
+        } catch (DataAccessException e) {
+            // decrease_stock signals a missing product with RAISE, so this outcome still costs an exception
+            if (isRaisedException(e)) {
+                return StockDecreaseResult.notFound();
+            }
+            throw e;
+        }
+        if (decreased) {
+            return StockDecreaseResult.ok();
+        }
+
+        // decrease_stock only returns false, so read what was actually available
+        Integer available = currentStock(productId);
+        if (available == null) {
+            return StockDecreaseResult.notFound();
+        }
+        availabilityCache.recordAvailable(productId, available);
+        return StockDecreaseResult.insufficient(available);
+    }
+
+    private boolean callDecreaseStock(Long productId, int qty) {
+        Boolean decreased = callTimer.record(() -> jdbcTemplate.execute(DECREASE_STOCK_CALL,
+                (CallableStatementCallback<Boolean>) cs -> {
+                    cs.registerOutParameter(1, Types.BOOLEAN);
+                    cs.setInt(2, Math.toIntExact(productId));
+                    cs.setInt(3, qty);
+                    cs.execute();
+                    return cs.getBoolean(1);
+                }));
+        return Boolean.TRUE.equals(decreased);
+    }
+
+    private Integer currentStock(Long productId) {
+        List<Integer> stock = jdbcTemplate.queryForList(SELECT_STOCK, Integer.class, productId);
+        return stock.isEmpty() ? null : stock.get(0);
+    }
+
+    private static boolean isRaisedException(DataAccessException e) {
+        return e.getMostSpecificCause() instanceof SQLException sqlException
+                && RAISE_EXCEPTION_STATE.equals(sqlException.getSQLState());
+    }
+}
@@ -0,0 +1,77 @@
+package com.assessmentpractice.service;
+
+import com.assessmentpractice.dto.StockDecreaseResult;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Products recently seen sold out (available qty 0) by tryDecreaseStock.
+ *
+ * While a product is in here, further attempts are answered with one read-only stock query instead
+ * of a locking write transaction. The cache is only a hint: the query decides, and an entry is dropped
+ * as soon as it shows stock or it expires (a successful decrease implies the check already saw stock,
+ * so the hot path never touches the lock). Restocks that bypass this service
+ * (imports, increase_stock) are picked up by that query or by the TTL. Size is bounded LRU-style,
+ * like CacheService, so huge catalogs cannot grow it without limit.
+ */
+class StockAvailabilityCache {
+    private static final int MAX_ENTRIES = 10_000;
+    private static final long TTL_NANOS = Duration.ofSeconds(30).toNanos();
+
+    // product id -> time the product was last confirmed sold out (System.nanoTime)
+    private final Map<Long, Long> soldOut = new LinkedHashMap<Long, Long>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * Answers a decrease from a read-only check if the product was recently seen sold out.
+     *
+     * @param stockReader reads the current stock, or null if the product does not exist
+     * @return the result, or null if the caller should go through the write path
+     */
+    StockDecreaseResult shortCircuit(Long productId, int qty, Function<Long, Integer> stockReader) {
+        if (!isKnownSoldOut(productId)) {
+            return null;
+        }
+        Integer available = stockReader.apply(productId);
+        if (available == null) {
+            forget(productId);
+            return StockDecreaseResult.notFound();
+        }
+        recordAvailable(productId, available);
+        return available < qty ? StockDecreaseResult.insufficient(available) : null;
+    }
+
+    /**
+     * Remembers the product if it is sold out, forgets it otherwise.
+     */
+    synchronized void recordAvailable(Long productId, int available) {
+        if (available == 0) {
+            soldOut.put(productId, System.nanoTime());
+        } else {
+            soldOut.remove(productId);
+        }
+    }
+
+    private synchronized void forget(Long productId) {
+        soldOut.remove(productId);
+    }
+
+    private synchronized boolean isKnownSoldOut(Long productId) {
+        Long seenAt = soldOut.get(productId);
+        if (seenAt == null) {
+            return false;
+        }
+        if (System.nanoTime() - seenAt > TTL_NANOS) {
+            soldOut.remove(productId);
+            return false;
+        }
+        return true;
+    }
+}
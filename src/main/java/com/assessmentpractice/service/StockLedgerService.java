@@ -0,0 +1,49 @@
+package com.assessmentpractice.service;
+
+import com.assessmentpractice.entity.StockLog;
+import com.assessmentpractice.repository.StockLogRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Time-window reads over the stock ledger. Windows are bounded so a query only touches the
+ * partitions it needs instead of scanning the whole ledger.
+ */
+@Service
+public class StockLedgerService {
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final StockLogRepository stockLogRepository;
+    private final Duration maxWindow;
+
+    public StockLedgerService(StockLogRepository stockLogRepository,
+                              @Value("${app.ledger.max-query-window:P31D}") Duration maxWindow) {
+        this.stockLogRepository = stockLogRepository;
+        this.maxWindow = maxWindow;
+    }
+
+    public List<StockLog> productHistory(Long productId, LocalDateTime from, LocalDateTime to) {
+        validateWindow(from, to);
+        return stockLogRepository.findByProductIdInWindow(productId, from, to);
+    }
+
+    public Slice<StockLog> catalogHistory(LocalDateTime from, LocalDateTime to, int page, int size) {
+        validateWindow(from, to);
+        return stockLogRepository.findInWindow(from, to, PageRequest.of(page, Math.min(size, MAX_PAGE_SIZE)));
+    }
+
+    private void validateWindow(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Window start must be before its end");
+        }
+        if (Duration.between(from, to).compareTo(maxWindow) > 0) {
+            throw new IllegalArgumentException("Window must not exceed " + maxWindow);
+        }
+    }
+}
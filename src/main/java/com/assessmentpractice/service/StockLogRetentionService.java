@@ -0,0 +1,164 @@
+package com.assessmentpractice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Daily maintenance of the stock ledger.
+ *
+ * On PostgreSQL it keeps partitions created ahead of time (at startup and nightly, both using
+ * {@code app.ledger.partition-granularity}) and, when retention is enabled, detaches partitions that lie
+ * entirely before the cutoff and drops them (or moves them to the archive schema). Old rows left in the
+ * default partition, and all old rows on other databases, are deleted in bounded chunks instead.
+ * Changing the granularity of a database that already has partitions requires dropping the future
+ * partitions first, since day and month ranges would overlap.
+ */
+@Service
+public class StockLogRetentionService {
+    private static final Logger logger = LoggerFactory.getLogger(StockLogRetentionService.class);
+
+    private static final String ENSURE_PARTITION = "SELECT ensure_stock_log_partition(?, ?)";
+    private static final String LIST_PARTITIONS =
+            "SELECT c.relname AS name, pg_get_expr(c.relpartbound, c.oid) AS bound"
+                    + " FROM pg_inherits i"
+                    + " JOIN pg_class c ON c.oid = i.inhrelid"
+                    + " JOIN pg_class p ON p.oid = i.inhparent"
+                    + " WHERE p.relname = 'stock_logs'";
+    private static final String DELETE_CHUNK =
+            "DELETE FROM stock_logs WHERE created_at < ? AND id IN"
+                    + " (SELECT id FROM stock_logs WHERE created_at < ? ORDER BY id FETCH FIRST %d ROWS ONLY)";
+    private static final Pattern UPPER_BOUND = Pattern.compile("TO \\('([^']+)'\\)");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean retentionEnabled;
+    private final String granularity;
+    private final int partitionsAhead;
+    private final int retainPeriods;
+    private final boolean archive;
+    private final int deleteChunkSize;
+    private volatile Boolean postgres;
+
+    public StockLogRetentionService(JdbcTemplate jdbcTemplate,
+                                    @Value("${app.ledger.retention.enabled:false}") boolean retentionEnabled,
+                                    @Value("${app.ledger.partition-granularity:month}") String granularity,
+                                    @Value("${app.ledger.partitions-ahead:2}") int partitionsAhead,
+                                    @Value("${app.ledger.retention.keep-periods:13}") int retainPeriods,
+                                    @Value("${app.ledger.retention.mode:drop}") String mode,
+                                    @Value("${app.ledger.retention.delete-chunk-size:10000}") int deleteChunkSize) {
+        if (!"day".equals(granularity) && !"month".equals(granularity)) {
+            throw new IllegalArgumentException("app.ledger.partition-granularity must be 'day' or 'month'");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.retentionEnabled = retentionEnabled;
+        this.granularity = granularity;
+        this.partitionsAhead = partitionsAhead;
+        this.retainPeriods = retainPeriods;
+        this.archive = "archive".equals(mode);
+        this.deleteChunkSize = deleteChunkSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensurePartitionsOnStartup() {
+        if (isPostgres()) {
+            ensurePartitionsAhead();
+        }
+    }
+
+    @Scheduled(cron = "${app.ledger.maintenance-cron:0 15 3 * * *}")
+    public void maintain() {
+        if (isPostgres()) {
+            ensurePartitionsAhead();
+        }
+        if (retentionEnabled) {
+            applyRetention();
+        }
+    }
+
+    public void ensurePartitionsAhead() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i <= partitionsAhead; i++) {
+            LocalDateTime at = now.plus(i, unit());
+            jdbcTemplate.queryForObject(ENSURE_PARTITION, String.class, granularity, Timestamp.valueOf(at));
+        }
+    }
+
+    /**
+     * Removes ledger rows older than the retention window.
+     *
+     * @return number of partitions dropped/archived plus rows deleted
+     */
+    public long applyRetention() {
+        LocalDateTime cutoff = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS).minus(retainPeriods, unit());
+        if (granularity.equals("month")) {
+            cutoff = cutoff.withDayOfMonth(1);
+        }
+        long removed = isPostgres() ? removePartitionsBefore(cutoff) : 0;
+        // On PostgreSQL only the default partition can still hold rows before the cutoff
+        return removed + deleteRowsBefore(cutoff);
+    }
+
+    private long removePartitionsBefore(LocalDateTime cutoff) {
+        List<String> expired = new ArrayList<>();
+        for (Map<String, Object> partition : jdbcTemplate.queryForList(LIST_PARTITIONS)) {
+            Matcher matcher = UPPER_BOUND.matcher(String.valueOf(partition.get("bound")));
+            if (matcher.find() && !Timestamp.valueOf(matcher.group(1)).toLocalDateTime().isAfter(cutoff)) {
+                expired.add((String) partition.get("name"));
+            }
+        }
+
+        for (String name : expired) {
+            // Names come from pg_class, quoting guards against anything unexpected
+            String table = "\"" + name.replace("\"", "\"\"") + "\"";
+            jdbcTemplate.execute("ALTER TABLE stock_logs DETACH PARTITION " + table);
+            if (archive) {
+                jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS archive");
+                jdbcTemplate.execute("ALTER TABLE " + table + " SET SCHEMA archive");
+            } else {
+                jdbcTemplate.execute("DROP TABLE " + table);
+            }
+            logger.info("Stock log partition {} {} (cutoff {})", name, archive ? "archived" : "dropped", cutoff);
+        }
+        return expired.size();
+    }
+
+    private long deleteRowsBefore(LocalDateTime cutoff) {
+        String deleteChunk = String.format(DELETE_CHUNK, deleteChunkSize);
+        long total = 0;
+        int deleted;
+        do {
+            // Each chunk is its own short transaction, keeping locks and undo small
+            deleted = jdbcTemplate.update(deleteChunk, Timestamp.valueOf(cutoff), Timestamp.valueOf(cutoff));
+            total += deleted;
+        } while (deleted == deleteChunkSize);
+        logger.info("Deleted {} stock log rows older than {}", total, cutoff);
+        return total;
+    }
+
+    private ChronoUnit unit() {
+        return "day".equals(granularity) ? ChronoUnit.DAYS : ChronoUnit.MONTHS;
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName()));
+        }
+        return postgres;
+    }
+}
@@ -0,0 +1,229 @@
+package com.assessmentpractice.service;
+
+import com.assessmentpractice.dto.ReconciliationReport;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Verifies that every Product.qty equals its opening stock plus the sum of its StockLog deltas
+ * without rescanning the ledger.
+ *
+ * Opening stock is recorded when the product is inserted (the importer writes opening-balance logs
+ * instead and leaves it at 0). Each product keeps a checkpoint (last log id, running sum of deltas);
+ * a run only reads log rows after it. The product-id space is split into ranges reconciled in parallel, each in one repeatable-read
+ * transaction so quantities and ledger rows come from the same snapshot.
+ *
+ * Checkpoints only advance over the settled prefix of a product's new rows, i.e. ids below its
+ * first row younger than {@code settle-delay}: identity ids are assigned before commit, so a very
+ * recent row may still be followed by a lower id that commits later, and created_at is not ordered
+ * by id. Rows past the prefix are still included in the drift check, just not checkpointed yet. Reconciliation must
+ * run more often than ledger retention drops partitions, or dropped rows never reach a checkpoint.
+ */
+@Service
+public class StockReconciliationService {
+    private static final Logger logger = LoggerFactory.getLogger(StockReconciliationService.class);
+
+    private static final int MAX_REPORTED_DRIFTS = 1000;
+
+    private static final String PRODUCT_ID_BOUNDS = "SELECT MIN(product_id), MAX(product_id) FROM products";
+    private static final String SELECT_PRODUCTS =
+            "SELECT product_id, stock, opening_stock FROM products WHERE product_id BETWEEN ? AND ?";
+    private static final String SELECT_CHECKPOINTS =
+            "SELECT product_id, last_log_id, running_sum FROM stock_reconciliation_checkpoints"
+                    + " WHERE product_id BETWEEN ? AND ?";
+    private static final String SELECT_NEW_DELTAS =
+            "SELECT l.product_id, SUM(l.delta), COUNT(*),"
+                    + " SUM(CASE WHEN u.first_unsettled_id IS NULL OR l.id < u.first_unsettled_id"
+                    + " THEN l.delta ELSE 0 END),"
+                    + " MAX(CASE WHEN u.first_unsettled_id IS NULL OR l.id < u.first_unsettled_id THEN l.id END)"
+                    + " FROM stock_logs l"
+                    + " LEFT JOIN stock_reconciliation_checkpoints c ON c.product_id = l.product_id"
+                    + " LEFT JOIN (SELECT product_id, MIN(id) AS first_unsettled_id FROM stock_logs"
+                    + " WHERE product_id BETWEEN ? AND ? AND created_at >= ? GROUP BY product_id) u"
+                    + " ON u.product_id = l.product_id"
+                    + " WHERE l.product_id BETWEEN ? AND ? AND l.id > COALESCE(c.last_log_id, 0)"
+                    + " GROUP BY l.product_id";
+    private static final String UPDATE_CHECKPOINT =
+            "UPDATE stock_reconciliation_checkpoints SET last_log_id = ?, running_sum = ?, updated_at = ?"
+                    + " WHERE product_id = ?";
+    private static final String INSERT_CHECKPOINT =
+            "INSERT INTO stock_reconciliation_checkpoints (product_id, last_log_id, running_sum, updated_at)"
+                    + " VALUES (?, ?, ?, ?)";
+
+    private record Balance(int qty, int openingQty) {
+    }
+
+    private record Checkpoint(long lastLogId, long runningSum) {
+    }
+
+    private record NewDeltas(long sum, long count, long settledSum, Long settledLastId) {
+    }
+
+    private record CheckpointUpdate(long productId, long lastLogId, long runningSum) {
+    }
+
+    private record RangeResult(int productsChecked, long logsProcessed, List<ReconciliationReport.Drift> drifts) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate snapshotTransaction;
+    private final ThreadPoolTaskExecutor executor;
+    private final int parallelism;
+    private final Duration settleDelay;
+    private volatile ReconciliationReport lastReport;
+
+    public StockReconciliationService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                      @Value("${app.reconciliation.parallelism:4}") int parallelism,
+                                      @Value("${app.reconciliation.settle-delay:PT1M}") Duration settleDelay) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        // Own pool, so ranges neither queue behind nor starve @Async tasks and streaming exports
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(parallelism);
+        this.executor.setMaxPoolSize(parallelism);
+        this.executor.setQueueCapacity(parallelism);
+        this.executor.setThreadNamePrefix("reconcile-");
+        this.executor.initialize();
+        this.parallelism = parallelism;
+        this.settleDelay = settleDelay;
+    }
+
+    /**
+     * Runs an incremental reconciliation over all products. Runs are serialized so two callers
+     * never advance the same checkpoints concurrently.
+     */
+    public synchronized ReconciliationReport reconcile() {
+        long started = System.nanoTime();
+        long[] bounds = jdbcTemplate.queryForObject(PRODUCT_ID_BOUNDS,
+                (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2)});
+        long min = bounds[0];
+        long max = bounds[1];
+        if (max == 0) {
+            // MIN/MAX over an empty products table
+            lastReport = new ReconciliationReport(0, 0, 0, 0, List.of(), 0);
+            return lastReport;
+        }
+
+        Timestamp settledBefore = Timestamp.valueOf(LocalDateTime.now().minus(settleDelay));
+        List<CompletableFuture<RangeResult>> ranges = new ArrayList<>();
+        long step = Math.max(1, (max - min + parallelism) / parallelism);
+        for (long lo = min; lo <= max; lo += step) {
+            long from = lo;
+            long to = Math.min(max, lo + step - 1);
+            ranges.add(CompletableFuture.supplyAsync(() -> reconcileRange(from, to, settledBefore), executor));
+        }
+
+        int productsChecked = 0;
+        long logsProcessed = 0;
+        List<ReconciliationReport.Drift> drifts = new ArrayList<>();
+        for (CompletableFuture<RangeResult> range : ranges) {
+            RangeResult result = range.join();
+            productsChecked += result.productsChecked();
+            logsProcessed += result.logsProcessed();
+            drifts.addAll(result.drifts());
+        }
+
+        long elapsed = (System.nanoTime() - started) / 1_000_000;
+        lastReport = new ReconciliationReport(productsChecked, logsProcessed, ranges.size(), drifts.size(),
+                drifts.size() > MAX_REPORTED_DRIFTS ? List.copyOf(drifts.subList(0, MAX_REPORTED_DRIFTS)) : drifts,
+                elapsed);
+        if (!drifts.isEmpty()) {
+            logger.warn("Stock reconciliation found {} drifting products out of {}", drifts.size(), productsChecked);
+        }
+        logger.info("Stock reconciliation: {} products, {} new log rows, {} ranges, {} ms",
+                productsChecked, logsProcessed, ranges.size(), elapsed);
+        return lastReport;
+    }
+
+    public ReconciliationReport getLastReport() {
+        return lastReport;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private RangeResult reconcileRange(long from, long to, Timestamp settledBefore) {
+        return snapshotTransaction.execute(status -> {
+            Map<Long, Balance> balances = new HashMap<>();
+            jdbcTemplate.query(SELECT_PRODUCTS,
+                    rs -> { balances.put(rs.getLong(1), new Balance(rs.getInt(2), rs.getInt(3))); }, from, to);
+
+            Map<Long, Checkpoint> checkpoints = new HashMap<>();
+            jdbcTemplate.query(SELECT_CHECKPOINTS,
+                    rs -> { checkpoints.put(rs.getLong(1), new Checkpoint(rs.getLong(2), rs.getLong(3))); }, from, to);
+
+            Map<Long, NewDeltas> deltas = new HashMap<>();
+            jdbcTemplate.query(SELECT_NEW_DELTAS, rs -> {
+                long settledLastId = rs.getLong(5);
+                deltas.put(rs.getLong(1), new NewDeltas(rs.getLong(2), rs.getLong(3), rs.getLong(4),
+                        rs.wasNull() ? null : settledLastId));
+            }, from, to, settledBefore, from, to);
+
+            long logsProcessed = 0;
+            List<ReconciliationReport.Drift> drifts = new ArrayList<>();
+            List<CheckpointUpdate> updates = new ArrayList<>();
+            List<CheckpointUpdate> inserts = new ArrayList<>();
+            for (Map.Entry<Long, Balance> product : balances.entrySet()) {
+                Long productId = product.getKey();
+                Balance balance = product.getValue();
+                Checkpoint checkpoint = checkpoints.get(productId);
+                NewDeltas newDeltas = deltas.get(productId);
+                long runningSum = checkpoint != null ? checkpoint.runningSum() : 0;
+                long ledgerSum = balance.openingQty() + runningSum + (newDeltas != null ? newDeltas.sum() : 0);
+
+                if (ledgerSum != balance.qty()) {
+                    drifts.add(new ReconciliationReport.Drift(productId, balance.qty(), ledgerSum,
+                            balance.qty() - ledgerSum));
+                }
+                if (newDeltas == null) {
+                    continue;
+                }
+                logsProcessed += newDeltas.count();
+                if (newDeltas.settledLastId() != null) {
+                    CheckpointUpdate update = new CheckpointUpdate(productId, newDeltas.settledLastId(),
+                            runningSum + newDeltas.settledSum());
+                    (checkpoint != null ? updates : inserts).add(update);
+                }
+            }
+
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            if (!updates.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_CHECKPOINT, updates, updates.size(), (ps, update) -> {
+                    ps.setLong(1, update.lastLogId());
+                    ps.setLong(2, update.runningSum());
+                    ps.setTimestamp(3, now);
+                    ps.setLong(4, update.productId());
+                });
+            }
+            if (!inserts.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_CHECKPOINT, inserts, inserts.size(), (ps, insert) -> {
+                    ps.setLong(1, insert.productId());
+                    ps.setLong(2, insert.lastLogId());
+                    ps.setLong(3, insert.runningSum());
+                    ps.setTimestamp(4, now);
+                });
+            }
+            return new RangeResult(balances.size(), logsProcessed, drifts);
+        });
+    }
+}
@@ -1,41 +1,33 @@
 package com.assessmentpractice.service;
 
-import com.assessmentpractice.entity.Product;
-import com.assessmentpractice.entity.StockLog;
+import com.assessmentpractice.dto.StockDecreaseResult;
 import com.assessmentpractice.exception.InsufficientStockException;
-import com.assessmentpractice.repository.ProductRepository;
-import com.assessmentpractice.repository.StockLogRepository;
-import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-@Service
-public class StockService {
-    private final ProductRepository productRepository;
-    private final StockLogRepository stockLogRepository;
+/**
+ * Stock write operations. The engine is chosen by profile: {@link JpaStockService} by default,
+ * {@link ProcedureStockService} when the postgres profile is active.
+ */
+public interface StockService {
 
-    public StockService(ProductRepository productRepository, StockLogRepository stockLogRepository) {
-        this.productRepository = productRepository;
-        this.stockLogRepository = stockLogRepository;
-    }
+    /**
+     * Timer recording the latency of each decreaseStock phase, tagged with {@code phase}.
+     */
+    String PHASE_TIMER_NAME = "stock.decrease.phase";
 
-    @Transactional
-    public void decreaseStock(Long productId, int qty) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new InsufficientStockException("Product not found with id: " + productId));
+    /**
+     * Atomically decreases the stock of a product and records the change in the stock log.
+     *
+     * @throws IllegalArgumentException if {@code qty} is not positive
+     * @throws InsufficientStockException if the product does not exist or has less than {@code qty} in stock
+     */
+    void decreaseStock(Long productId, int qty);
 
-        if (product.getQty() < qty) {
-            throw new InsufficientStockException(
-                    String.format("Insufficient stock for product %s. Available: %d, Requested: %d",
-                            product.getName(), product.getQty(), qty)
-            );
-        }
-
-        // Decrease stock
-        product.setQty(product.getQty() - qty);
-        productRepository.save(product);
-
-        // Log the stock change (delta is negative for decrease)
-        StockLog stockLog = new StockLog(productId, -qty);
-        stockLogRepository.save(stockLog);
-    }
+    /**
+     * Same as {@link #decreaseStock} but reports failures as a result instead of an exception, for
+     * callers where running out of stock is routine (sell-outs). A failed attempt writes nothing, and
+     * products already seen short are answered from a read-only stock check without locking.
+     *
+     * @throws IllegalArgumentException if {@code qty} is not positive (invalid input, not a stock outcome)
+     */
+    StockDecreaseResult tryDecreaseStock(Long productId, int qty);
 }
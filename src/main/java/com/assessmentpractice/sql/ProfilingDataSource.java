@@ -0,0 +1,157 @@
+package com.assessmentpractice.sql;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * DataSource wrapper that times every JDBC execution and counts the rows it touches,
+ * feeding the results into the {@link SqlProfiler} scopes open on the calling thread.
+ *
+ * Extends DelegatingDataSource so Spring Boot can still unwrap the pool (e.g. for HikariCP metrics).
+ */
+public class ProfilingDataSource extends DelegatingDataSource {
+
+    public ProfilingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxyConnection(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxyConnection(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private static Connection proxyConnection(Connection target) {
+        return (Connection) Proxy.newProxyInstance(ProfilingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(target));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private static Object identityMethod(Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            default -> null;
+        };
+    }
+
+    private static class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object identity = identityMethod(proxy, method, args);
+            if (identity != null) {
+                return identity;
+            }
+            Object result = ProfilingDataSource.invoke(target, method, args);
+            return switch (method.getName()) {
+                case "prepareStatement" -> proxyStatement(result, PreparedStatement.class, (String) args[0]);
+                case "prepareCall" -> proxyStatement(result, CallableStatement.class, (String) args[0]);
+                case "createStatement" -> proxyStatement(result, Statement.class, null);
+                default -> result;
+            };
+        }
+
+        private static Object proxyStatement(Object statement, Class<?> type, String sql) {
+            return Proxy.newProxyInstance(ProfilingDataSource.class.getClassLoader(),
+                    new Class<?>[]{type}, new StatementHandler(statement, sql));
+        }
+    }
+
+    private static class StatementHandler implements InvocationHandler {
+        private final Object target;
+        private final String sql;
+
+        StatementHandler(Object target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object identity = identityMethod(proxy, method, args);
+            if (identity != null) {
+                return identity;
+            }
+            String name = method.getName();
+            if (!name.startsWith("execute")) {
+                return ProfilingDataSource.invoke(target, method, args);
+            }
+
+            long start = System.nanoTime();
+            Object result = ProfilingDataSource.invoke(target, method, args);
+            String executed = args != null && args.length > 0 && args[0] instanceof String text ? text : sql;
+            SqlProfiler.recordExecution(executed, System.nanoTime() - start);
+
+            if (result instanceof Integer updated) {
+                SqlProfiler.recordRows(updated);
+            } else if (result instanceof Long updated) {
+                SqlProfiler.recordRows(updated);
+            } else if (result instanceof int[] batch) {
+                long total = 0;
+                for (int updated : batch) {
+                    total += Math.max(updated, 0);
+                }
+                SqlProfiler.recordRows(total);
+            } else if (result instanceof long[] batch) {
+                long total = 0;
+                for (long updated : batch) {
+                    total += Math.max(updated, 0);
+                }
+                SqlProfiler.recordRows(total);
+            } else if (result instanceof ResultSet resultSet) {
+                return Proxy.newProxyInstance(ProfilingDataSource.class.getClassLoader(),
+                        new Class<?>[]{ResultSet.class}, new ResultSetHandler(resultSet));
+            }
+            return result;
+        }
+    }
+
+    private static class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+
+        ResultSetHandler(ResultSet target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object identity = identityMethod(proxy, method, args);
+            if (identity != null) {
+                return identity;
+            }
+            Object result = ProfilingDataSource.invoke(target, method, args);
+            if ("next".equals(method.getName()) && Boolean.TRUE.equals(result)) {
+                SqlProfiler.recordRows(1);
+            }
+            return result;
+        }
+    }
+}
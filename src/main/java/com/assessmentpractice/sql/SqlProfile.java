@@ -0,0 +1,112 @@
+package com.assessmentpractice.sql;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Statement, row and time counters collected for one profiling scope
+ * (an HTTP request, a transaction, or an explicit {@link SqlProfiler#start(String)} block).
+ *
+ * Counters are only updated by the thread that opened the scope, so no synchronization is needed.
+ */
+public class SqlProfile implements AutoCloseable {
+    private static final int MAX_RECORDED_STATEMENTS = 200;
+
+    private final String name;
+    private final int nPlusOneThreshold;
+    private final List<String> statements = new ArrayList<>();
+    private final Map<String, Integer> selectShapes = new LinkedHashMap<>();
+    private int statementCount;
+    private long rowCount;
+    private long elapsedNanos;
+    private boolean closed;
+
+    SqlProfile(String name, int nPlusOneThreshold) {
+        this.name = name;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+    }
+
+    void recordExecution(String sql, long nanos) {
+        statementCount++;
+        elapsedNanos += nanos;
+        if (statements.size() < MAX_RECORDED_STATEMENTS) {
+            statements.add(sql);
+        }
+    }
+
+    void recordRows(long rows) {
+        rowCount += rows;
+    }
+
+    void recordSelectShape(String normalizedSql) {
+        selectShapes.merge(normalizedSql, 1, Integer::sum);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Number of JDBC executions (round trips); a JDBC batch counts once.
+     */
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    public List<String> getStatements() {
+        return Collections.unmodifiableList(statements);
+    }
+
+    /**
+     * Hibernate-generated SELECT shapes issued at least {@code nPlusOneThreshold} times in this scope,
+     * which is the signature of lazy loading one row at a time.
+     */
+    public Map<String, Integer> getNPlusOneCandidates() {
+        return selectShapes.entrySet().stream()
+                .filter(entry -> entry.getValue() >= nPlusOneThreshold)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue,
+                        (a, b) -> a, LinkedHashMap::new));
+    }
+
+    public boolean hasNPlusOne() {
+        return !getNPlusOneCandidates().isEmpty();
+    }
+
+    public void assertStatementCountAtMost(int max) {
+        if (statementCount > max) {
+            throw new AssertionError(String.format("%s issued %d statements, budget is %d:%n  %s",
+                    name, statementCount, max, String.join(System.lineSeparator() + "  ", statements)));
+        }
+    }
+
+    public void assertNoNPlusOne() {
+        if (hasNPlusOne()) {
+            throw new AssertionError(name + " has N+1 select patterns: " + getNPlusOneCandidates());
+        }
+    }
+
+    public String summary() {
+        return String.format("%s: %d statements, %d rows, %d ms", name, statementCount, rowCount, getElapsedMillis());
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            SqlProfiler.end(this);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.assessmentpractice.sql;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.regex.Pattern;
+
+/**
+ * Thread-bound registry of open {@link SqlProfile} scopes.
+ *
+ * Every JDBC execution seen by {@link ProfilingDataSource} is added to all scopes open on the
+ * current thread. A transaction scope is opened automatically on the first statement of each
+ * Spring-managed transaction and closed on completion.
+ *
+ * Tests use it directly:
+ * <pre>
+ * try (SqlProfile profile = SqlProfiler.start("decreaseStock")) {
+ *     stockService.decreaseStock(id, 1);
+ *     profile.assertStatementCountAtMost(3);
+ * }
+ * </pre>
+ */
+public final class SqlProfiler {
+    private static final Logger logger = LoggerFactory.getLogger(SqlProfiler.class);
+
+    static final int DEFAULT_N_PLUS_ONE_THRESHOLD = 3;
+
+    private static final ThreadLocal<Deque<SqlProfile>> SCOPES = ThreadLocal.withInitial(ArrayDeque::new);
+    private static final Object TRANSACTION_SCOPE_KEY = new Object();
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)");
+
+    private SqlProfiler() {
+    }
+
+    public static SqlProfile start(String name) {
+        return start(name, DEFAULT_N_PLUS_ONE_THRESHOLD);
+    }
+
+    public static SqlProfile start(String name, int nPlusOneThreshold) {
+        SqlProfile profile = new SqlProfile(name, nPlusOneThreshold);
+        SCOPES.get().push(profile);
+        return profile;
+    }
+
+    static void end(SqlProfile profile) {
+        Deque<SqlProfile> scopes = SCOPES.get();
+        scopes.remove(profile);
+        if (scopes.isEmpty()) {
+            SCOPES.remove();
+        }
+        if (profile.hasNPlusOne()) {
+            logger.warn("Possible N+1 in {}: {}", profile.getName(), profile.getNPlusOneCandidates());
+        }
+        logger.debug("SQL profile {}", profile.summary());
+    }
+
+    static void recordExecution(String sql, long nanos) {
+        openTransactionScopeIfNeeded();
+        for (SqlProfile profile : SCOPES.get()) {
+            profile.recordExecution(sql, nanos);
+        }
+    }
+
+    static void recordRows(long rows) {
+        Deque<SqlProfile> scopes = SCOPES.get();
+        if (rows <= 0 || scopes.isEmpty()) {
+            return;
+        }
+        for (SqlProfile profile : scopes) {
+            profile.recordRows(rows);
+        }
+    }
+
+    static void recordHibernateStatement(String sql) {
+        Deque<SqlProfile> scopes = SCOPES.get();
+        if (scopes.isEmpty() || !sql.regionMatches(true, 0, "select", 0, 6)) {
+            return;
+        }
+        String shape = normalize(sql);
+        for (SqlProfile profile : scopes) {
+            profile.recordSelectShape(shape);
+        }
+    }
+
+    static String normalize(String sql) {
+        String collapsed = WHITESPACE.matcher(sql.trim()).replaceAll(" ").toLowerCase();
+        return IN_LIST.matcher(collapsed).replaceAll("(?)");
+    }
+
+    private static void openTransactionScopeIfNeeded() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(TRANSACTION_SCOPE_KEY)) {
+            return;
+        }
+        String name = TransactionSynchronizationManager.getCurrentTransactionName();
+        SqlProfile profile = start("transaction " + (name != null ? name : "<unnamed>"));
+        TransactionSynchronizationManager.bindResource(TRANSACTION_SCOPE_KEY, profile);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_SCOPE_KEY);
+                profile.close();
+            }
+        });
+    }
+}
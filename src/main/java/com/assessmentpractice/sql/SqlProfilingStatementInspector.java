@@ -0,0 +1,20 @@
+package com.assessmentpractice.sql;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hibernate hook that sees every ORM-generated statement before it is prepared.
+ * Used to spot repeated SELECT shapes (N+1 loading) inside open {@link SqlProfile} scopes.
+ *
+ * Registered by class name through {@code hibernate.session_factory.statement_inspector}
+ * (see SqlProfilingConfig), so Hibernate instantiates it reflectively and it must keep a public
+ * no-arg constructor.
+ */
+public class SqlProfilingStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        SqlProfiler.recordHibernateStatement(sql);
+        return sql;
+    }
+}
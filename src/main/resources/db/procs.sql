@@ -1,6 +1,21 @@
 -- Sample PostgreSQL Tables and Stored Procedures
 -- For Assessment Practice
 
+-- Migration: a products table created by the earlier JPA mapping (Hibernate ddl-auto: id identity,
+-- name, qty) is renamed here and its rows are copied into the table below. This script runs on
+-- every startup, so each step is a no-op once the table has the product_id column.
+DO $$
+BEGIN
+    IF to_regclass('products') IS NOT NULL
+            AND NOT EXISTS (SELECT 1 FROM information_schema.columns
+                            WHERE table_schema = current_schema() AND table_name = 'products'
+                              AND column_name = 'product_id') THEN
+        ALTER TABLE products RENAME TO products_legacy;
+        ALTER INDEX IF EXISTS products_pkey RENAME TO products_legacy_pkey;
+    END IF;
+END;
+$$;
+
 -- Create sample products table
 CREATE TABLE IF NOT EXISTS products (
     product_id SERIAL PRIMARY KEY,
@@ -8,10 +23,37 @@ CREATE TABLE IF NOT EXISTS products (
     description TEXT,
     price DECIMAL(10, 2) NOT NULL,
     stock INTEGER NOT NULL DEFAULT 0,
+    opening_stock INTEGER NOT NULL DEFAULT 0,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
+-- Starting balance that reconciliation adds to the ledger sum (0 where opening stock logs exist)
+ALTER TABLE products ADD COLUMN IF NOT EXISTS opening_stock INTEGER NOT NULL DEFAULT 0;
+
+-- Product ids are allocated in blocks of 50 by the JPA mapping (bulk imports batch their inserts)
+ALTER SEQUENCE products_product_id_seq INCREMENT BY 50;
+
+-- Migration (continued): copy the old rows keeping their ids (stock logs refer to them),
+-- move the sequence past them, then drop the old table. The old mapping had no opening balance, so
+-- it is taken as whatever qty the existing stock logs do not explain.
+DO $$
+BEGIN
+    IF to_regclass('products_legacy') IS NOT NULL THEN
+        INSERT INTO products (product_id, product_name, price, stock, opening_stock)
+        SELECT id, name, 0, qty, qty FROM products_legacy;
+        IF to_regclass('stock_logs') IS NOT NULL THEN
+            UPDATE products p SET opening_stock = p.stock - l.ledger_sum
+            FROM (SELECT product_id, SUM(delta) AS ledger_sum FROM stock_logs GROUP BY product_id) l
+            WHERE l.product_id = p.product_id;
+        END IF;
+        PERFORM setval(pg_get_serial_sequence('products', 'product_id'),
+                       GREATEST((SELECT COALESCE(MAX(product_id), 0) FROM products), 1));
+        DROP TABLE products_legacy;
+    END IF;
+END;
+$$;
+
 -- Create sample orders table
 CREATE TABLE IF NOT EXISTS orders (
     order_id SERIAL PRIMARY KEY,
@@ -30,6 +72,77 @@ CREATE TABLE IF NOT EXISTS order_items (
     price DECIMAL(10, 2) NOT NULL
 );
 
+-- Create stock log table (mirrors the StockLog JPA entity)
+-- Range-partitioned by created_at so time-window queries prune partitions and retention
+-- drops whole partitions instead of running large DELETEs. The partition key must be part
+-- of the primary key.
+
+-- Migration: a stock_logs table created before partitioning (plain table) is renamed here and
+-- its rows are copied into the partitioned table below. This script runs on every startup, so
+-- each step is a no-op once the table is partitioned.
+DO $$
+BEGIN
+    IF to_regclass('stock_logs') IS NOT NULL
+            AND NOT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = 'stock_logs'::regclass) THEN
+        ALTER TABLE stock_logs RENAME TO stock_logs_unpartitioned;
+        ALTER INDEX IF EXISTS idx_stock_logs_product_created RENAME TO idx_stock_logs_unpartitioned_product_created;
+        ALTER INDEX IF EXISTS idx_stock_logs_created RENAME TO idx_stock_logs_unpartitioned_created;
+    END IF;
+END;
+$$;
+
+CREATE TABLE IF NOT EXISTS stock_logs (
+    id BIGSERIAL,
+    product_id BIGINT NOT NULL,
+    delta INTEGER NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- Catches rows outside the pre-created partitions (back-dated logs, missed maintenance runs)
+-- so inserts never fail; ensure_stock_log_partition moves them out when their partition is created
+CREATE TABLE IF NOT EXISTS stock_logs_default PARTITION OF stock_logs DEFAULT;
+
+-- Stored Procedure: Create the stock_logs partition covering a point in time
+-- p_granularity is 'day' or 'month' (app.ledger.partition-granularity); ranges must not overlap.
+-- Partitions are created by StockLogRetentionService at startup and by its nightly maintenance.
+CREATE OR REPLACE FUNCTION ensure_stock_log_partition(
+    p_granularity TEXT,
+    p_at TIMESTAMP
+) RETURNS TEXT AS $$
+DECLARE
+    v_start TIMESTAMP := date_trunc(p_granularity, p_at);
+    v_end TIMESTAMP := v_start + ('1 ' || p_granularity)::INTERVAL;
+    v_name TEXT := 'stock_logs_' || to_char(v_start, CASE WHEN p_granularity = 'day' THEN 'YYYYMMDD' ELSE 'YYYYMM' END);
+BEGIN
+    IF to_regclass(v_name) IS NOT NULL THEN
+        RETURN v_name;
+    END IF;
+    -- Rows for this range may already sit in the default partition; move them before attaching,
+    -- otherwise the attach fails the default partition's constraint check
+    EXECUTE format('CREATE TABLE %I (LIKE stock_logs INCLUDING DEFAULTS)', v_name);
+    EXECUTE format('WITH moved AS (DELETE FROM stock_logs_default WHERE created_at >= %L AND created_at < %L RETURNING *)'
+                   || ' INSERT INTO %I SELECT * FROM moved', v_start, v_end, v_name);
+    EXECUTE format('ALTER TABLE stock_logs ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   v_name, v_start, v_end);
+    RETURN v_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Migration (continued): copy the rows of the old plain table, keep ids increasing past them
+-- (exports and reconciliation use id watermarks), then drop it
+DO $$
+BEGIN
+    IF to_regclass('stock_logs_unpartitioned') IS NOT NULL THEN
+        INSERT INTO stock_logs (id, product_id, delta, created_at)
+        SELECT id, product_id, delta, COALESCE(created_at, CURRENT_TIMESTAMP) FROM stock_logs_unpartitioned;
+        PERFORM setval(pg_get_serial_sequence('stock_logs', 'id'),
+                       GREATEST((SELECT COALESCE(MAX(id), 0) FROM stock_logs), 1));
+        DROP TABLE stock_logs_unpartitioned;
+    END IF;
+END;
+$$;
+
 -- Stored Procedure: Decrease Stock with Validation
 -- This procedure demonstrates proper stock management with locking
 CREATE OR REPLACE FUNCTION decrease_stock(
@@ -39,6 +152,11 @@ CREATE OR REPLACE FUNCTION decrease_stock(
 DECLARE
     current_stock INT;
 BEGIN
+    -- A non-positive quantity would raise the stock instead (22023 = invalid_parameter_value)
+    IF p_quantity IS NULL OR p_quantity <= 0 THEN
+        RAISE EXCEPTION 'Quantity must be positive: %', p_quantity USING ERRCODE = '22023';
+    END IF;
+
     -- Lock the row for update to prevent race conditions
     SELECT stock INTO current_stock
     FROM products
@@ -62,6 +180,10 @@ BEGIN
         updated_at = CURRENT_TIMESTAMP
     WHERE product_id = p_product_id;
 
+    -- Log the stock change in the same call (delta is negative for decrease)
+    INSERT INTO stock_logs (product_id, delta, created_at)
+    VALUES (p_product_id, -p_quantity, CURRENT_TIMESTAMP);
+
     RETURN TRUE;
 END;
 $$ LANGUAGE plpgsql;
@@ -81,6 +203,9 @@ BEGIN
         RAISE EXCEPTION 'Product with ID % not found', p_product_id;
     END IF;
 
+    INSERT INTO stock_logs (product_id, delta, created_at)
+    VALUES (p_product_id, p_quantity, CURRENT_TIMESTAMP);
+
     RETURN TRUE;
 END;
 $$ LANGUAGE plpgsql;
@@ -136,6 +261,9 @@ CREATE INDEX IF NOT EXISTS idx_orders_status ON orders(status);
 CREATE INDEX IF NOT EXISTS idx_orders_date ON orders(order_date);
 CREATE INDEX IF NOT EXISTS idx_order_items_order_id ON order_items(order_id);
 CREATE INDEX IF NOT EXISTS idx_order_items_product_id ON order_items(product_id);
+-- Created on the partitioned parent, so every partition gets a local copy
+CREATE INDEX IF NOT EXISTS idx_stock_logs_product_created ON stock_logs(product_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_stock_logs_created ON stock_logs(created_at);
 
 -- Database Optimization Notes:
 -- 1. Indexes: Create on foreign keys, frequently queried columns, and WHERE clause columns
@@ -149,11 +277,19 @@ CREATE INDEX IF NOT EXISTS idx_order_items_product_id ON order_items(product_id)
 -- 9. Partitioning: Consider table partitioning for very large tables
 -- 10. Monitoring: Monitor slow query logs and use tools like pg_stat_statements
 
--- Sample Data for Testing
-INSERT INTO products (product_name, description, price, stock) VALUES
-    ('Laptop', 'High-performance laptop', 999.99, 50),
-    ('Mouse', 'Wireless mouse', 29.99, 200),
-    ('Keyboard', 'Mechanical keyboard', 79.99, 100),
-    ('Monitor', '27-inch 4K monitor', 399.99, 75),
-    ('Headphones', 'Noise-cancelling headphones', 199.99, 150)
-ON CONFLICT DO NOTHING;
+-- Sample Data for Testing (only seeded into an empty table, since the script runs on every startup)
+-- Each sample product gets an opening-balance stock log, so reconciliation sees qty = sum(delta)
+WITH seeded AS (
+    INSERT INTO products (product_name, description, price, stock)
+    SELECT * FROM (VALUES
+        ('Laptop', 'High-performance laptop', 999.99, 50),
+        ('Mouse', 'Wireless mouse', 29.99, 200),
+        ('Keyboard', 'Mechanical keyboard', 79.99, 100),
+        ('Monitor', '27-inch 4K monitor', 399.99, 75),
+        ('Headphones', 'Noise-cancelling headphones', 199.99, 150)
+    ) AS sample (product_name, description, price, stock)
+    WHERE NOT EXISTS (SELECT 1 FROM products)
+    RETURNING product_id, stock
+)
+INSERT INTO stock_logs (product_id, delta, created_at)
+SELECT product_id, stock, CURRENT_TIMESTAMP FROM seeded;
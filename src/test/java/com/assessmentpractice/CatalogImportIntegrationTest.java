@@ -0,0 +1,134 @@
+package com.assessmentpractice;
+
+import com.assessmentpractice.dto.ImportReport;
+import com.assessmentpractice.entity.Product;
+import com.assessmentpractice.entity.StockLog;
+import com.assessmentpractice.repository.ProductRepository;
+import com.assessmentpractice.repository.StockLogRepository;
+import com.assessmentpractice.service.CatalogImportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "app.import.chunk-size=3")
+public class CatalogImportIntegrationTest {
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockLogRepository stockLogRepository;
+
+    @BeforeEach
+    public void setUp() {
+        stockLogRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    public void testCsvImportAcrossChunks() {
+        String csv = String.join("\n",
+                "name,qty,price",
+                "Plain,1,1.50",
+                "\"Comma, Inc\",2,2.00",
+                "\"Quote \"\"Q\"\"\",3,3.00",
+                "",
+                "Four,4,4",
+                "Five,5,5",
+                "Six,6,6",
+                "Seven,7,7");
+
+        ImportReport report = catalogImportService.importCatalog(input(csv), CatalogImportService.Format.CSV);
+
+        assertEquals(7, report.rows(), "Header and blank lines should be skipped");
+        assertEquals(3, report.chunks(), "7 rows in chunks of 3");
+        assertFalse(report.copyFastPath());
+
+        List<Product> products = productRepository.findAll();
+        products.sort(Comparator.comparing(Product::getQty));
+        assertEquals(7, products.size());
+        assertEquals("Comma, Inc", products.get(1).getName(), "Quoted commas belong to the field");
+        assertEquals("Quote \"Q\"", products.get(2).getName(), "Doubled quotes are unescaped");
+        assertEquals(0, new BigDecimal("1.50").compareTo(products.get(0).getPrice()));
+        assertOpeningBalances(products);
+    }
+
+    @Test
+    public void testNdjsonImport() {
+        String ndjson = """
+                {"name":"Alpha","qty":10,"price":"9.99"}
+                {"name":"Beta","qty":0,"price":1}
+                {"name":"Gamma","qty":4,"price":2.5}
+                {"name":"Delta","qty":8,"price":"0"}
+                """;
+
+        ImportReport report = catalogImportService.importCatalog(input(ndjson), CatalogImportService.Format.NDJSON);
+
+        assertEquals(4, report.rows());
+        assertEquals(2, report.chunks());
+        List<Product> products = productRepository.findAll();
+        assertEquals(4, products.size());
+        assertOpeningBalances(products);
+    }
+
+    @Test
+    public void testInvalidRowReportsLastCommittedLine() {
+        String ndjson = """
+                {"name":"One","qty":1,"price":1}
+                {"name":"Two","qty":2,"price":1}
+                {"name":"Three","qty":3,"price":1}
+                {"name":"Four","qty":4,"price":1}
+                {"name":"Five","price":1}
+                """;
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> catalogImportService.importCatalog(input(ndjson), CatalogImportService.Format.NDJSON));
+
+        assertTrue(e.getMessage().contains("line 5"), "Error should name the bad line: " + e.getMessage());
+        assertTrue(e.getMessage().contains("resume after line 3"), "Error should name the last committed line: " + e.getMessage());
+        assertEquals(3, productRepository.count(), "The first chunk stays committed");
+    }
+
+    @Test
+    public void testNdjsonRowsWithMissingOrInvalidFieldsAreRejected() {
+        for (String row : List.of(
+                "{\"qty\":1,\"price\":1}",
+                "{\"name\":\" \",\"qty\":1,\"price\":1}",
+                "{\"name\":\"No qty\",\"price\":1}",
+                "{\"name\":\"Negative\",\"qty\":-1,\"price\":1}",
+                "{\"name\":\"No price\",\"qty\":1}")) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> catalogImportService.importCatalog(input(row), CatalogImportService.Format.NDJSON),
+                    "Row should be rejected: " + row);
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> catalogImportService.importCatalog(input("Negative,-2,1\n"), CatalogImportService.Format.CSV));
+        assertEquals(0, productRepository.count());
+    }
+
+    private void assertOpeningBalances(List<Product> products) {
+        for (Product product : products) {
+            List<StockLog> logs = stockLogRepository.findByProductId(product.getId());
+            assertEquals(1, logs.size(), "Each imported product should have one opening-balance log");
+            assertEquals(product.getQty(), logs.get(0).getDelta(), "Opening balance should equal the imported qty");
+            assertEquals(0, product.getOpeningQty(), "The opening-balance log already explains the imported qty");
+        }
+    }
+
+    private static InputStream input(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
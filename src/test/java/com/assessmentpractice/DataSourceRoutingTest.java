@@ -0,0 +1,71 @@
+package com.assessmentpractice;
+
+import com.assessmentpractice.datasource.ReplicaLagMonitor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two in-memory H2 databases stand in for the primary and the replica.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary",
+        "app.datasource.replica.jdbc-url=jdbc:h2:mem:replica",
+        "app.datasource.replica.username=sa",
+        "app.datasource.replica.maximum-pool-size=2",
+        "app.datasource.routing.lag-query=SELECT 0"
+})
+public class DataSourceRoutingTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Test
+    public void testReadOnlyTransactionsUseReplica() {
+        assertEquals("REPLICA", currentDatabase(true), "Read-only work should run on the replica");
+        assertTrue(replicaLagMonitor.isReplicaUsable());
+    }
+
+    @Test
+    public void testWriteTransactionsUsePrimary() {
+        assertEquals("PRIMARY", currentDatabase(false), "Read-write work should run on the primary");
+    }
+
+    @Test
+    public void testLaggingReplicaIsTakenOutOfRotation() {
+        ReplicaLagMonitor laggingMonitor = new ReplicaLagMonitor(replicaDataSource, "SELECT 60",
+                Duration.ofSeconds(5), Duration.ofSeconds(1));
+        laggingMonitor.refresh();
+
+        assertFalse(laggingMonitor.isReplicaUsable(), "A replica 60s behind should not serve reads");
+        assertEquals(60.0, laggingMonitor.getLagSeconds(), 0.0);
+    }
+
+    private String currentDatabase(boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        String database = transactionTemplate.execute(status ->
+                jdbcTemplate.queryForObject("SELECT DATABASE()", String.class));
+        assertNotNull(database);
+        return database.toUpperCase();
+    }
+}
@@ -0,0 +1,168 @@
+package com.assessmentpractice;
+
+import com.assessmentpractice.dto.ExportManifest;
+import com.assessmentpractice.entity.StockLog;
+import com.assessmentpractice.repository.StockLogRepository;
+import com.assessmentpractice.service.LedgerExportService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.export.settle-delay=PT0S",
+        "app.export.dir=target/test-exports"
+})
+public class LedgerExportIntegrationTest {
+
+    @Autowired
+    private LedgerExportService ledgerExportService;
+
+    @Autowired
+    private StockLogRepository stockLogRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private RequestMappingHandlerAdapter handlerAdapter;
+
+    @BeforeEach
+    public void setUp() {
+        stockLogRepository.deleteAll();
+    }
+
+    @Test
+    public void testExportRoundTripsAsGzipNdjson() throws IOException {
+        StockLog first = stockLogRepository.save(new StockLog(1L, 10));
+        StockLog second = stockLogRepository.save(new StockLog(2L, -3));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LedgerExportService.ExportResult result = ledgerExportService.export(out, 0, null);
+
+        List<JsonNode> rows = decode(out.toByteArray());
+        assertEquals(2, result.rows());
+        assertEquals(second.getId(), result.lastId(), "Watermark should be the last exported id");
+        assertEquals(2, rows.size());
+        assertEquals(first.getId(), rows.get(0).get("id").asLong());
+        assertEquals(1L, rows.get(0).get("product_id").asLong());
+        assertEquals(-3, rows.get(1).get("delta").asInt());
+        assertTrue(rows.get(1).hasNonNull("created_at"));
+    }
+
+    @Test
+    public void testIncrementalExportOnlyReturnsNewRows() throws IOException {
+        stockLogRepository.save(new StockLog(1L, 5));
+        long lastId = ledgerExportService.export(new ByteArrayOutputStream(), 0, null).lastId();
+
+        StockLog added = stockLogRepository.save(new StockLog(1L, -1));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LedgerExportService.ExportResult result = ledgerExportService.export(out, lastId, null);
+
+        List<JsonNode> rows = decode(out.toByteArray());
+        assertEquals(1, result.rows(), "Only rows after the watermark should be exported");
+        assertEquals(added.getId(), rows.get(0).get("id").asLong());
+    }
+
+    @Test
+    public void testUnsettledRowsAreLeftForTheNextExport() {
+        stockLogRepository.save(new StockLog(1L, 5));
+        LedgerExportService settling = new LedgerExportService(dataSource, transactionManager, objectMapper,
+                "target/test-exports", 100, Duration.ofHours(1));
+
+        LedgerExportService.ExportResult result = settling.export(new ByteArrayOutputStream(), 0, null);
+
+        assertEquals(0, result.rows(), "A row younger than the settle delay should not be exported yet");
+        assertEquals(0, result.lastId(), "Watermark should not move past unsettled rows");
+    }
+
+    @Test
+    public void testExportStopsBeforeFirstUnsettledId() throws IOException {
+        StockLog settled = saveLog(5, LocalDateTime.now().minusHours(2));
+        saveLog(-1, LocalDateTime.now());
+        saveLog(-2, LocalDateTime.now().minusHours(2));
+        LedgerExportService settling = new LedgerExportService(dataSource, transactionManager, objectMapper,
+                "target/test-exports", 100, Duration.ofHours(1));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LedgerExportService.ExportResult result = settling.export(out, 0, null);
+
+        assertEquals(1, result.rows(), "A settled row after an unsettled lower id should wait for the next export");
+        assertEquals(settled.getId(), result.lastId(), "Watermark should stay below the first unsettled id");
+        assertEquals(settled.getId(), decode(out.toByteArray()).get(0).get("id").asLong());
+
+        LedgerExportService.ExportResult next =
+                ledgerExportService.export(new ByteArrayOutputStream(), result.lastId(), null);
+        assertEquals(2, next.rows(), "Both remaining rows should be exported once settled");
+    }
+
+    @Test
+    public void testManifestChecksumMatchesFile() throws Exception {
+        stockLogRepository.save(new StockLog(1L, 7));
+        stockLogRepository.save(new StockLog(2L, -2));
+
+        ExportManifest manifest = ledgerExportService.exportToFile(0, null);
+
+        Path file = Path.of("target/test-exports", manifest.file());
+        byte[] content = Files.readAllBytes(file);
+        assertEquals(manifest.bytes(), content.length);
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content)), manifest.sha256(),
+                "Manifest checksum should match the file contents");
+        assertEquals(2, decode(content).size());
+        assertTrue(Files.exists(Path.of("target/test-exports", manifest.file() + ".manifest.json")));
+    }
+
+    @Test
+    public void testStreamingRequestTimeoutIsExplicit() {
+        assertEquals(Duration.ofMinutes(30).toMillis(), ReflectionTestUtils.getField(handlerAdapter, "asyncRequestTimeout"),
+                "Exports should not be cut off by the container's default async timeout");
+    }
+
+    private StockLog saveLog(int delta, LocalDateTime createdAt) {
+        StockLog log = new StockLog(1L, delta);
+        log.setCreatedAt(createdAt);
+        return stockLogRepository.save(log);
+    }
+
+    private List<JsonNode> decode(byte[] gzip) throws IOException {
+        List<JsonNode> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(gzip)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                rows.add(objectMapper.readTree(line));
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,117 @@
+package com.assessmentpractice;
+
+import com.assessmentpractice.dto.OrderConfirmation;
+import com.assessmentpractice.dto.OrderRequest;
+import com.assessmentpractice.entity.Order;
+import com.assessmentpractice.entity.OrderItem;
+import com.assessmentpractice.entity.Product;
+import com.assessmentpractice.exception.InsufficientStockException;
+import com.assessmentpractice.repository.OrderItemRepository;
+import com.assessmentpractice.repository.OrderRepository;
+import com.assessmentpractice.repository.ProductRepository;
+import com.assessmentpractice.repository.StockLogRepository;
+import com.assessmentpractice.service.OrderService;
+import com.assessmentpractice.sql.SqlProfile;
+import com.assessmentpractice.sql.SqlProfiler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class OrderServiceIntegrationTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockLogRepository stockLogRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @BeforeEach
+    public void setUp() {
+        orderItemRepository.deleteAll();
+        orderRepository.deleteAll();
+        stockLogRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    public void testPlaceOrderReservesEveryLine() {
+        Product laptop = saveProduct("Laptop", 10, "999.99");
+        Product mouse = saveProduct("Mouse", 50, "29.99");
+
+        OrderConfirmation confirmation = orderService.placeOrder(new OrderRequest("Alice", List.of(
+                new OrderRequest.Line(mouse.getId(), 3),
+                new OrderRequest.Line(laptop.getId(), 1),
+                new OrderRequest.Line(mouse.getId(), 2)
+        )));
+        Order order = confirmation.order();
+
+        assertEquals(0, new BigDecimal("1149.94").compareTo(order.getTotalAmount()), "Total should price every line");
+        assertEquals("confirmed", order.getStatus());
+        assertEquals(9, productRepository.findById(laptop.getId()).orElseThrow().getQty());
+        assertEquals(45, productRepository.findById(mouse.getId()).orElseThrow().getQty());
+
+        List<OrderItem> items = orderItemRepository.findByOrderId(order.getId());
+        assertEquals(2, items.size(), "Duplicate product lines should be merged");
+        assertEquals(2, confirmation.lines(), "Reported line count should be the merged one");
+        assertEquals(-5, stockLogRepository.findByProductId(mouse.getId()).get(0).getDelta());
+    }
+
+    @Test
+    public void testPlaceOrderRollsBackAllLinesWhenOneIsShort() {
+        Product laptop = saveProduct("Laptop", 10, "999.99");
+        Product mouse = saveProduct("Mouse", 1, "29.99");
+
+        assertThrows(InsufficientStockException.class, () -> orderService.placeOrder(new OrderRequest("Bob", List.of(
+                new OrderRequest.Line(laptop.getId(), 2),
+                new OrderRequest.Line(mouse.getId(), 5)
+        ))));
+
+        assertEquals(10, productRepository.findById(laptop.getId()).orElseThrow().getQty(),
+                "Reserved lines should be rolled back");
+        assertEquals(0, orderRepository.count(), "No order should be created");
+        assertEquals(0, stockLogRepository.count(), "No stock log should be created");
+    }
+
+    @Test
+    public void testPlaceOrderRoundTripsDoNotGrowWithCartSize() {
+        int singleLine = statementsForCart(1);
+        int fiveLines = statementsForCart(5);
+
+        assertEquals(singleLine, fiveLines, "A five-item cart should cost the same round trips as one item");
+    }
+
+    private int statementsForCart(int size) {
+        List<OrderRequest.Line> lines = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            lines.add(new OrderRequest.Line(saveProduct("Item " + i, 10, "1.00").getId(), 1));
+        }
+        try (SqlProfile profile = SqlProfiler.start("placeOrder x" + size)) {
+            orderService.placeOrder(new OrderRequest("Carol", lines));
+            profile.assertNoNPlusOne();
+            return profile.getStatementCount();
+        }
+    }
+
+    private Product saveProduct(String name, int qty, String price) {
+        Product product = new Product(name, qty);
+        product.setPrice(new BigDecimal(price));
+        return productRepository.save(product);
+    }
+}
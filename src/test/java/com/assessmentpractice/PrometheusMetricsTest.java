@@ -0,0 +1,50 @@
+package com.assessmentpractice;
+
+import com.assessmentpractice.entity.Product;
+import com.assessmentpractice.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests replace exporters with a simple registry unless observability is auto-configured explicitly.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+public class PrometheusMetricsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    public void testScrapeExposesLatencyHistograms() throws Exception {
+        Product product = productRepository.save(new Product("Metrics Product", 10));
+        mockMvc.perform(post("/study/stock/{productId}/decrease", product.getId()).param("qty", "1"))
+                .andExpect(status().isOk());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        for (String phase : new String[]{"load", "check", "update", "log_insert", "commit"}) {
+            assertTrue(scrape.lines().anyMatch(line -> line.startsWith("stock_decrease_phase_seconds_bucket{")
+                            && line.contains("phase=\"" + phase + "\"")),
+                    "Phase timer " + phase + " should publish histogram buckets");
+        }
+        assertTrue(scrape.lines().anyMatch(line -> line.startsWith("http_server_requests_seconds_bucket{")
+                        && line.contains("uri=\"/study/stock/{productId}/decrease\"")),
+                "http.server.requests should publish histogram buckets for the decrease endpoint");
+    }
+}
@@ -0,0 +1,85 @@
+package com.assessmentpractice;
+
+import com.assessmentpractice.admission.AdaptiveConcurrencyLimiter;
+import com.assessmentpractice.admission.StockAdmissionControl;
+import com.assessmentpractice.exception.AdmissionRejectedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StockAdmissionControlTest {
+
+    @Test
+    public void testLimitShrinksOnSlowCallsAndGrowsOnFastOnes() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 20, TimeUnit.MILLISECONDS.toNanos(50));
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(200), false);
+        }
+        int reduced = limiter.getLimit();
+        assertTrue(reduced < 10, "Slow calls should lower the limit, was " + reduced);
+
+        // Keep the limiter saturated with fast calls so it is allowed to grow
+        for (int round = 0; round < 50; round++) {
+            int admitted = 0;
+            while (limiter.tryAcquire()) {
+                admitted++;
+            }
+            for (int i = 0; i < admitted; i++) {
+                limiter.release(TimeUnit.MILLISECONDS.toNanos(1), false);
+            }
+        }
+        assertTrue(limiter.getLimit() > reduced, "Fast calls at full utilization should raise the limit");
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void testExcessRequestsAreRejectedImmediately() throws Exception {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        StockAdmissionControl admissionControl = new StockAdmissionControl(meterRegistry, 3, 1, 3,
+                Duration.ofSeconds(1), 1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Void> first = hold(admissionControl, 1L, release);
+        CompletableFuture<Void> second = hold(admissionControl, 2L, release);
+
+        AdmissionRejectedException sameProduct = assertThrows(AdmissionRejectedException.class,
+                () -> admissionControl.admit(1L, () -> null));
+        assertFalse(sameProduct.isGlobal(), "Product 1 already has a write in flight");
+
+        CompletableFuture<Void> third = hold(admissionControl, 3L, release);
+        AdmissionRejectedException global = assertThrows(AdmissionRejectedException.class,
+                () -> admissionControl.admit(4L, () -> null));
+        assertTrue(global.isGlobal(), "All global permits are held");
+
+        release.countDown();
+        CompletableFuture.allOf(first, second, third).get(5, TimeUnit.SECONDS);
+        assertEquals("done", admissionControl.admit(1L, () -> "done"), "Permits should be returned after the calls");
+        assertEquals(1.0, meterRegistry.get("stock.admission.rejected").tag("scope", "product").counter().count());
+        assertEquals(1.0, meterRegistry.get("stock.admission.rejected").tag("scope", "global").counter().count());
+    }
+
+    private static CompletableFuture<Void> hold(StockAdmissionControl admissionControl, Long productId,
+                                                CountDownLatch release) throws InterruptedException {
+        CountDownLatch admitted = new CountDownLatch(1);
+        CompletableFuture<Void> call = CompletableFuture.runAsync(() -> admissionControl.admit(productId, () -> {
+            admitted.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        assertTrue(admitted.await(5, TimeUnit.SECONDS), "Call for product " + productId + " should be admitted");
+        return call;
+    }
+}
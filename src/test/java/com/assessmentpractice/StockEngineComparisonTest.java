@@ -0,0 +1,115 @@
+package com.assessmentpractice;
+
+import com.assessmentpractice.entity.Product;
+import com.assessmentpractice.repository.ProductRepository;
+import com.assessmentpractice.repository.StockLogRepository;
+import com.assessmentpractice.service.JpaStockService;
+import com.assessmentpractice.service.ProcedureStockService;
+import com.assessmentpractice.service.StockService;
+import com.assessmentpractice.sql.SqlProfile;
+import com.assessmentpractice.sql.SqlProfiler;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Round trips and latency of the JPA engine versus the decrease_stock stored procedure.
+ *
+ * Needs a local PostgreSQL, e.g. {@code docker-compose up -d postgres}, then:
+ * {@code mvn test -Dtest=StockEngineComparisonTest -Dstock.compare=true}
+ */
+@SpringBootTest
+@ActiveProfiles("postgres")
+@EnabledIfSystemProperty(named = "stock.compare", matches = "true")
+public class StockEngineComparisonTest {
+    private static final Logger logger = LoggerFactory.getLogger(StockEngineComparisonTest.class);
+
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 2_000;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockLogRepository stockLogRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void compareJpaAndProcedureEngines() {
+        assertInstanceOf(ProcedureStockService.class, stockService, "postgres profile should select the procedure engine");
+
+        // The JPA engine is built by hand, so its @Transactional boundary is reproduced with a template
+        JpaStockService jpaEngine = new JpaStockService(productRepository, stockLogRepository, meterRegistry,
+                transactionManager, jdbcTemplate);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        BiConsumer<Long, Integer> jpaDecrease = (productId, qty) ->
+                transactionTemplate.executeWithoutResult(status -> jpaEngine.decreaseStock(productId, qty));
+
+        Result jpa = run("jpa", jpaDecrease);
+        Result procedure = run("procedure", stockService::decreaseStock);
+
+        logger.info("{}", jpa);
+        logger.info("{}", procedure);
+
+        assertEquals(1.0, procedure.statementsPerCall, 0.0, "decrease_stock should be a single round trip");
+        assertTrue(procedure.statementsPerCall < jpa.statementsPerCall,
+                "Procedure engine should issue fewer statements than the JPA engine");
+    }
+
+    private Result run(String engine, BiConsumer<Long, Integer> decreaseStock) {
+        Product product = new Product("Comparison " + engine, WARMUP + ITERATIONS);
+        Long productId = productRepository.save(product).getId();
+
+        for (int i = 0; i < WARMUP; i++) {
+            decreaseStock.accept(productId, 1);
+        }
+
+        long[] latencies = new long[ITERATIONS];
+        int statements;
+        try (SqlProfile profile = SqlProfiler.start(engine)) {
+            for (int i = 0; i < ITERATIONS; i++) {
+                long start = System.nanoTime();
+                decreaseStock.accept(productId, 1);
+                latencies[i] = System.nanoTime() - start;
+            }
+            statements = profile.getStatementCount();
+        }
+
+        assertEquals(0, productRepository.findById(productId).orElseThrow().getQty());
+        Arrays.sort(latencies);
+        return new Result(engine, (double) statements / ITERATIONS,
+                latencies[ITERATIONS / 2] / 1_000, latencies[ITERATIONS * 99 / 100] / 1_000);
+    }
+
+    private record Result(String engine, double statementsPerCall, long p50Micros, long p99Micros) {
+        @Override
+        public String toString() {
+            return String.format("%-10s statements/call=%.1f (plus COMMIT for jpa) p50=%dus p99=%dus",
+                    engine, statementsPerCall, p50Micros, p99Micros);
+        }
+    }
+}
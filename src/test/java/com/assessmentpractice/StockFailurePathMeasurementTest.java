@@ -0,0 +1,93 @@
+package com.assessmentpractice;
+
+import com.assessmentpractice.dto.StockDecreaseResult;
+import com.assessmentpractice.entity.Product;
+import com.assessmentpractice.exception.InsufficientStockException;
+import com.assessmentpractice.repository.ProductRepository;
+import com.assessmentpractice.service.StockService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Allocation and latency of a failed decrease on a sold-out product: decreaseStock (exception and
+ * rollback) versus tryDecreaseStock (result, read-only short circuit).
+ *
+ * Opt-in: {@code mvn test -Dtest=StockFailurePathMeasurementTest -Dstock.measure=true}
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "stock.measure", matches = "true")
+public class StockFailurePathMeasurementTest {
+    private static final Logger logger = LoggerFactory.getLogger(StockFailurePathMeasurementTest.class);
+
+    private static final int WARMUP = 500;
+    private static final int ITERATIONS = 5_000;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    public void compareFailurePaths() {
+        Long productId = productRepository.save(new Product("Sold Out Measurement", 0)).getId();
+
+        Result throwing = run("decreaseStock", productId, id -> {
+            try {
+                stockService.decreaseStock(id, 1);
+                fail("Sold-out product should not be decreased");
+            } catch (InsufficientStockException expected) {
+                // the failure path being measured
+            }
+        });
+        Result result = run("tryDecreaseStock", productId, id -> {
+            StockDecreaseResult outcome = stockService.tryDecreaseStock(id, 1);
+            assertEquals(StockDecreaseResult.Status.INSUFFICIENT, outcome.status());
+        });
+
+        logger.info("{}", throwing);
+        logger.info("{}", result);
+
+        assertTrue(result.bytesPerCall < throwing.bytesPerCall,
+                "tryDecreaseStock should allocate less than the throwing path");
+    }
+
+    private Result run(String path, Long productId, Consumer<Long> call) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        for (int i = 0; i < WARMUP; i++) {
+            call.accept(productId);
+        }
+
+        long[] latencies = new long[ITERATIONS];
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            call.accept(productId);
+            latencies[i] = System.nanoTime() - start;
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        Arrays.sort(latencies);
+        return new Result(path, allocated / ITERATIONS,
+                latencies[ITERATIONS / 2] / 1_000, latencies[ITERATIONS * 99 / 100] / 1_000);
+    }
+
+    private record Result(String path, long bytesPerCall, long p50Micros, long p99Micros) {
+        @Override
+        public String toString() {
+            return String.format("%-16s allocated/call=%dB p50=%dus p99=%dus", path, bytesPerCall, p50Micros, p99Micros);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.assessmentpractice;
+
+import com.assessmentpractice.entity.StockLog;
+import com.assessmentpractice.repository.StockLogRepository;
+import com.assessmentpractice.service.StockLedgerService;
+import com.assessmentpractice.service.StockLogRetentionService;
+import com.assessmentpractice.sql.SqlProfile;
+import com.assessmentpractice.sql.SqlProfiler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class StockLedgerIntegrationTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2026, 3, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2026, 3, 2, 0, 0);
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Autowired
+    private StockLogRepository stockLogRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setUp() {
+        stockLogRepository.deleteAll();
+    }
+
+    @Test
+    public void testWindowIsHalfOpen() {
+        saveLog(1L, -1, FROM.minusNanos(1000));
+        StockLog atStart = saveLog(1L, -2, FROM);
+        StockLog inside = saveLog(1L, -3, TO.minusNanos(1000));
+        saveLog(1L, -4, TO);
+        saveLog(2L, -5, FROM.plusHours(1));
+
+        List<StockLog> history = stockLedgerService.productHistory(1L, FROM, TO);
+
+        assertEquals(List.of(atStart.getId(), inside.getId()), history.stream().map(StockLog::getId).toList(),
+                "Window should include its start and exclude its end");
+    }
+
+    @Test
+    public void testCatalogHistoryPagesThroughWindow() {
+        for (int i = 0; i < 5; i++) {
+            saveLog((long) i, -1, FROM.plusMinutes(i));
+        }
+
+        Slice<StockLog> first = stockLedgerService.catalogHistory(FROM, TO, 0, 3);
+        Slice<StockLog> second = stockLedgerService.catalogHistory(FROM, TO, 1, 3);
+
+        assertEquals(3, first.getNumberOfElements());
+        assertTrue(first.hasNext());
+        assertEquals(2, second.getNumberOfElements());
+        assertFalse(second.hasNext());
+    }
+
+    @Test
+    public void testInvalidWindowsAreRejected() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> stockLedgerService.productHistory(1L, TO, FROM),
+                "from after to should be rejected");
+        assertThrows(IllegalArgumentException.class, () -> stockLedgerService.productHistory(1L, FROM, FROM),
+                "Empty window should be rejected");
+        assertThrows(IllegalArgumentException.class,
+                () -> stockLedgerService.catalogHistory(FROM, FROM.plusDays(32), 0, 10),
+                "Window over app.ledger.max-query-window should be rejected");
+
+        mockMvc.perform(get("/study/ledger").param("from", TO.toString()).param("to", FROM.toString()))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/study/ledger/products/1")
+                        .param("from", FROM.toString()).param("to", FROM.plusDays(32).toString()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testRetentionDeletesOldRowsInChunks() {
+        LocalDateTime old = LocalDateTime.now().minusDays(30);
+        for (int i = 0; i < 5; i++) {
+            saveLog(1L, -1, old.plusMinutes(i));
+        }
+        StockLog recent = saveLog(1L, -1, LocalDateTime.now());
+        StockLogRetentionService retentionService =
+                new StockLogRetentionService(jdbcTemplate, true, "day", 2, 7, "drop", 2);
+
+        try (SqlProfile profile = SqlProfiler.start("retention")) {
+            assertEquals(5, retentionService.applyRetention(), "All rows older than 7 days should be deleted");
+            // Chunks of 2, 2 and 1 rows; the short chunk ends the loop
+            assertEquals(3, profile.getStatementCount(), "Rows should be deleted in bounded chunks");
+        }
+        assertEquals(List.of(recent.getId()), stockLogRepository.findAll().stream().map(StockLog::getId).toList());
+    }
+
+    private StockLog saveLog(Long productId, int delta, LocalDateTime createdAt) {
+        StockLog log = new StockLog(productId, delta);
+        log.setCreatedAt(createdAt);
+        return stockLogRepository.save(log);
+    }
+}
@@ -0,0 +1,145 @@
+package com.assessmentpractice;
+
+import com.assessmentpractice.dto.ReconciliationReport;
+import com.assessmentpractice.entity.Product;
+import com.assessmentpractice.entity.StockLog;
+import com.assessmentpractice.repository.ProductRepository;
+import com.assessmentpractice.repository.ReconciliationCheckpointRepository;
+import com.assessmentpractice.repository.StockLogRepository;
+import com.assessmentpractice.service.StockReconciliationService;
+import com.assessmentpractice.service.StockService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class StockReconciliationIntegrationTest {
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockLogRepository stockLogRepository;
+
+    @Autowired
+    private ReconciliationCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private StockReconciliationService reconciliationService;
+
+    @BeforeEach
+    public void setUp() {
+        checkpointRepository.deleteAll();
+        stockLogRepository.deleteAll();
+        productRepository.deleteAll();
+        // No settle delay, so every ledger row is checkpointed as soon as it is seen
+        reconciliationService = new StockReconciliationService(jdbcTemplate, transactionManager, 2, Duration.ZERO);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        reconciliationService.shutdown();
+    }
+
+    @Test
+    public void testReconciliationOnlyReadsNewLedgerRows() {
+        Product balanced = productRepository.save(new Product("Balanced Product", 100));
+        // Changed before the first run: the opening stock recorded at insert still explains it
+        stockService.decreaseStock(balanced.getId(), 30);
+
+        ReconciliationReport first = reconciliationService.reconcile();
+        assertEquals(1, first.productsChecked());
+        assertEquals(1, first.logsProcessed(), "The decrease should be read");
+        assertEquals(0, first.driftCount(), "Opening stock plus ledger should explain the product qty");
+
+        ReconciliationReport second = reconciliationService.reconcile();
+        assertEquals(0, second.logsProcessed(), "Checkpointed rows should not be read again");
+        assertEquals(0, second.driftCount());
+
+        stockService.decreaseStock(balanced.getId(), 5);
+        ReconciliationReport third = reconciliationService.reconcile();
+        assertEquals(1, third.logsProcessed(), "Only the new decrease should be read");
+        assertEquals(0, third.driftCount());
+        assertEquals(-35L, checkpointRepository.findById(balanced.getId()).orElseThrow().getRunningSum());
+    }
+
+    @Test
+    public void testReconciliationReportsDrift() {
+        Product balanced = productRepository.save(new Product("Balanced Product", 20));
+        Product drifting = productRepository.save(new Product("Drifting Product", 50));
+        // Changed without a ledger row
+        jdbcTemplate.update("UPDATE products SET stock = 60 WHERE product_id = ?", drifting.getId());
+
+        ReconciliationReport report = reconciliationService.reconcile();
+
+        assertEquals(2, report.productsChecked());
+        assertEquals(1, report.driftCount());
+        ReconciliationReport.Drift drift = report.drifts().get(0);
+        assertEquals(drifting.getId(), drift.productId());
+        assertEquals(50, drift.ledgerSum());
+        assertEquals(10, drift.drift(), "Qty is 10 higher than the ledger explains");
+    }
+
+    @Test
+    public void testOpeningBalanceLogIsNotCountedTwice() {
+        // As written by the catalog import: opening stock 0 and an opening-balance log
+        Product imported = new Product("Imported Product", 40);
+        imported.setOpeningQty(0);
+        imported = productRepository.save(imported);
+        stockLogRepository.save(new StockLog(imported.getId(), 40));
+        stockService.decreaseStock(imported.getId(), 15);
+
+        ReconciliationReport report = reconciliationService.reconcile();
+        assertEquals(2, report.logsProcessed());
+        assertEquals(0, report.driftCount(), "The opening-balance log should explain the imported qty");
+        assertEquals(25L, checkpointRepository.findById(imported.getId()).orElseThrow().getRunningSum());
+    }
+
+    @Test
+    public void testCheckpointStopsBeforeFirstUnsettledRow() {
+        Product product = productRepository.save(new Product("Out Of Order Product", 100));
+        StockLog first = saveLog(product, -10, LocalDateTime.now().minusHours(2));
+        saveLog(product, -20, LocalDateTime.now());
+        StockLog third = saveLog(product, -30, LocalDateTime.now().minusHours(2));
+        jdbcTemplate.update("UPDATE products SET stock = 40 WHERE product_id = ?", product.getId());
+
+        reconciliationService.shutdown();
+        reconciliationService = new StockReconciliationService(jdbcTemplate, transactionManager, 2, Duration.ofHours(1));
+        ReconciliationReport settling = reconciliationService.reconcile();
+        assertEquals(3, settling.logsProcessed());
+        assertEquals(0, settling.driftCount());
+        assertEquals(first.getId(), checkpointRepository.findById(product.getId()).orElseThrow().getLastLogId(),
+                "A settled row after an unsettled lower id should not be checkpointed");
+
+        reconciliationService.shutdown();
+        reconciliationService = new StockReconciliationService(jdbcTemplate, transactionManager, 2, Duration.ZERO);
+        ReconciliationReport settled = reconciliationService.reconcile();
+        assertEquals(2, settled.logsProcessed(), "Rows after the checkpoint should be read again");
+        assertEquals(0, settled.driftCount());
+        assertEquals(third.getId(), checkpointRepository.findById(product.getId()).orElseThrow().getLastLogId());
+        assertEquals(-60L, checkpointRepository.findById(product.getId()).orElseThrow().getRunningSum());
+    }
+
+    private StockLog saveLog(Product product, int delta, LocalDateTime createdAt) {
+        StockLog log = new StockLog(product.getId(), delta);
+        log.setCreatedAt(createdAt);
+        return stockLogRepository.save(log);
+    }
+}
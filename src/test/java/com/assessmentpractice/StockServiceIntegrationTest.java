@@ -1,11 +1,14 @@
 package com.assessmentpractice;
 
+import com.assessmentpractice.dto.StockDecreaseResult;
 import com.assessmentpractice.entity.Product;
 import com.assessmentpractice.entity.StockLog;
 import com.assessmentpractice.exception.InsufficientStockException;
 import com.assessmentpractice.repository.ProductRepository;
 import com.assessmentpractice.repository.StockLogRepository;
 import com.assessmentpractice.service.StockService;
+import com.assessmentpractice.sql.SqlProfile;
+import com.assessmentpractice.sql.SqlProfiler;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -112,4 +115,96 @@ public class StockServiceIntegrationTest {
         List<StockLog> logs = stockLogRepository.findByProductId(product.getId());
         assertEquals(3, logs.size(), "Three stock logs should be created");
     }
+
+    @Test
+    public void testDecreaseStockRejectsNonPositiveQuantity() {
+        Product product = productRepository.save(new Product("Guarded Product", 10));
+        final Long productId = product.getId();
+
+        assertThrows(IllegalArgumentException.class, () -> stockService.decreaseStock(productId, -100),
+                "Negative quantity must not raise the stock");
+        assertThrows(IllegalArgumentException.class, () -> stockService.decreaseStock(productId, 0),
+                "Zero quantity must not write an empty log row");
+
+        assertEquals(10, productRepository.findById(productId).orElseThrow().getQty(), "Stock should be unchanged");
+        assertEquals(0, stockLogRepository.findByProductId(productId).size(), "No stock log should be created");
+    }
+
+    @Test
+    public void testDecreaseStockStatementBudget() {
+        Product product = productRepository.save(new Product("Budget Product", 100));
+
+        try (SqlProfile profile = SqlProfiler.start("decreaseStock")) {
+            stockService.decreaseStock(product.getId(), 5);
+
+            // Load product, update product, insert stock log
+            profile.assertStatementCountAtMost(3);
+            profile.assertNoNPlusOne();
+        }
+    }
+
+    @Test
+    public void testTryDecreaseStockSuccess() {
+        Product product = productRepository.save(new Product("Try Product", 50));
+
+        StockDecreaseResult result = stockService.tryDecreaseStock(product.getId(), 20);
+
+        assertTrue(result.isOk(), "Decrease within stock should succeed");
+        assertEquals(30, productRepository.findById(product.getId()).orElseThrow().getQty());
+        assertEquals(1, stockLogRepository.findByProductId(product.getId()).size(), "One stock log should be created");
+    }
+
+    @Test
+    public void testTryDecreaseStockInsufficientReportsAvailable() {
+        Product product = productRepository.save(new Product("Short Product", 5));
+
+        StockDecreaseResult result = stockService.tryDecreaseStock(product.getId(), 8);
+
+        assertEquals(StockDecreaseResult.Status.INSUFFICIENT, result.status());
+        assertEquals(5, result.available(), "Result should carry the available quantity");
+        assertEquals(5, productRepository.findById(product.getId()).orElseThrow().getQty(), "Stock should be unchanged");
+        assertEquals(0, stockLogRepository.findByProductId(product.getId()).size(), "No stock log should be created");
+    }
+
+    @Test
+    public void testTryDecreaseStockProductNotFound() {
+        assertEquals(StockDecreaseResult.Status.NOT_FOUND, stockService.tryDecreaseStock(999L, 1).status());
+    }
+
+    @Test
+    public void testTryDecreaseStockRejectsNonPositiveQuantity() {
+        Product product = productRepository.save(new Product("Guarded Try Product", 0));
+        final Long productId = product.getId();
+        // Puts the product in the known-short cache, which must not answer invalid quantities
+        assertEquals(StockDecreaseResult.Status.INSUFFICIENT, stockService.tryDecreaseStock(productId, 1).status());
+
+        assertThrows(IllegalArgumentException.class, () -> stockService.tryDecreaseStock(productId, -5));
+        assertThrows(IllegalArgumentException.class, () -> stockService.tryDecreaseStock(productId, 0));
+
+        assertEquals(0, productRepository.findById(productId).orElseThrow().getQty(), "Stock should be unchanged");
+        assertEquals(0, stockLogRepository.findByProductId(productId).size(), "No stock log should be created");
+    }
+
+    @Test
+    public void testTryDecreaseStockShortCircuitsKnownSoldOutProduct() {
+        Product product = productRepository.save(new Product("Sold Out Product", 1));
+        assertTrue(stockService.tryDecreaseStock(product.getId(), 1).isOk());
+        assertEquals(StockDecreaseResult.Status.INSUFFICIENT, stockService.tryDecreaseStock(product.getId(), 1).status());
+
+        try (SqlProfile profile = SqlProfiler.start("tryDecreaseStock sold out")) {
+            StockDecreaseResult result = stockService.tryDecreaseStock(product.getId(), 1);
+
+            assertEquals(StockDecreaseResult.Status.INSUFFICIENT, result.status());
+            assertEquals(0, result.available());
+            // Only the read-only stock check, no entity load or write transaction
+            profile.assertStatementCountAtMost(1);
+        }
+
+        // A restock is picked up by the read-only check and the write path is used again
+        product = productRepository.findById(product.getId()).orElseThrow();
+        product.setQty(3);
+        productRepository.save(product);
+        assertTrue(stockService.tryDecreaseStock(product.getId(), 2).isOk(), "Restocked product should be sold again");
+        assertEquals(1, productRepository.findById(product.getId()).orElseThrow().getQty());
+    }
 }